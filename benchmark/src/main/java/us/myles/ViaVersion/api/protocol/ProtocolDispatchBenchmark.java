@@ -0,0 +1,82 @@
+package us.myles.ViaVersion.api.protocol;
+
+import org.openjdk.jmh.annotations.*;
+import us.myles.ViaVersion.api.Pair;
+import us.myles.ViaVersion.api.data.UserConnection;
+import us.myles.ViaVersion.packets.Direction;
+import us.myles.ViaVersion.packets.State;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the packet lookup of Protocol against the old HashMap keyed by Pair(State, Integer).
+ * Both only look the packet up and return its new id, the map holds the same ProtocolPacket values as the dispatch table
+ * (this is in the package of Protocol so it can create them).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@org.openjdk.jmh.annotations.State(Scope.Thread)
+public class ProtocolDispatchBenchmark {
+    // Packet IDs spread over the 1.8 play range, with a couple which aren't registered
+    private static final int[] PACKET_IDS = {0x00, 0x03, 0x0F, 0x15, 0x16, 0x17, 0x1C, 0x21, 0x26, 0x2F, 0x3B, 0x41, 0x49, 0x4A};
+    private static final int PACKETS = 0x49;
+
+    private DispatchProtocol protocol;
+    private Map<Pair<State, Integer>, Protocol.ProtocolPacket> legacyMap;
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        protocol = new DispatchProtocol();
+        legacyMap = new HashMap<>();
+        for (int id = 0; id < PACKETS; id++) {
+            legacyMap.put(new Pair<>(State.PLAY, id), protocol.new ProtocolPacket(State.PLAY, id, id, null));
+        }
+    }
+
+    private int nextId() {
+        int id = PACKET_IDS[cursor];
+        cursor = (cursor + 1) % PACKET_IDS.length;
+        return id;
+    }
+
+    @Benchmark
+    public int hashMapLookup() {
+        // This is the lookup Protocol.transform used to do for each packet
+        int packetID = nextId();
+        Pair<State, Integer> statePacket = new Pair<>(State.PLAY, packetID);
+        if (!legacyMap.containsKey(statePacket)) {
+            return packetID;
+        }
+        Protocol.ProtocolPacket protocolPacket = legacyMap.get(statePacket);
+        if (protocolPacket.getRemapper() != null) {
+            return Protocol.REMAP_REQUIRED;
+        }
+        return protocolPacket.getNewID();
+    }
+
+    @Benchmark
+    public int dispatchTable() {
+        return protocol.transformPacketID(Direction.OUTGOING, State.PLAY, nextId());
+    }
+
+    private static class DispatchProtocol extends Protocol {
+        @Override
+        protected void registerPackets() {
+            // Id only registrations, so the lookup is all there is
+            for (int id = 0; id < PACKETS; id++) {
+                registerOutgoing(State.PLAY, id, id);
+            }
+        }
+
+        @Override
+        public void init(UserConnection userConnection) {
+
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package us.myles.ViaVersion.benchmark;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.java.JavaPlugin;
+import sun.misc.Unsafe;
+import us.myles.ViaVersion.ViaVersionPlugin;
+import us.myles.ViaVersion.api.ViaVersion;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.logging.Logger;
+
+/**
+ * Sets up just enough of Bukkit and ViaVersion for the protocols to run outside of a server.
+ * The server is a proxy which answers every call with null / 0 (so Bukkit.getPlayer finds nobody),
+ * the plugin is never enabled and uses an empty config, so every option has its default value.
+ */
+final class BenchmarkEnvironment {
+    private static final Logger LOGGER = Logger.getLogger("ViaVersion-Benchmark");
+
+    private BenchmarkEnvironment() {
+    }
+
+    static synchronized void install() throws Exception {
+        if (ViaVersion.getInstance() != null) return;
+
+        if (Bukkit.getServer() == null) {
+            Bukkit.setServer(createServer());
+        }
+        // JavaPlugin can only be constructed by the plugin loader, so skip the constructor
+        ViaVersionPlugin plugin = (ViaVersionPlugin) getUnsafe().allocateInstance(ViaVersionPlugin.class);
+        Field config = JavaPlugin.class.getDeclaredField("newConfig");
+        config.setAccessible(true);
+        config.set(plugin, new YamlConfiguration());
+        ViaVersion.setInstance(plugin);
+    }
+
+    private static Server createServer() {
+        ServerClassLoader loader = new ServerClassLoader(Server.class.getClassLoader());
+        Server server = (Server) Proxy.newProxyInstance(loader, new Class[]{Server.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "getLogger":
+                        return LOGGER;
+                    case "getName":
+                        return "ViaVersion-Benchmark";
+                    case "getVersion":
+                    case "getBukkitVersion":
+                    case "toString":
+                        return "benchmark";
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    default:
+                        return defaultValue(method.getReturnType());
+                }
+            }
+        });
+        // ReflectionUtil looks at the package of the server class
+        loader.definePackageOf(server.getClass());
+        return server;
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (!type.isPrimitive() || type == void.class) return null;
+        if (type == boolean.class) return false;
+        if (type == char.class) return (char) 0;
+        if (type == byte.class) return (byte) 0;
+        if (type == short.class) return (short) 0;
+        if (type == int.class) return 0;
+        if (type == long.class) return 0L;
+        if (type == float.class) return 0F;
+        return 0D;
+    }
+
+    private static Unsafe getUnsafe() throws Exception {
+        Field field = Unsafe.class.getDeclaredField("theUnsafe");
+        field.setAccessible(true);
+        return (Unsafe) field.get(null);
+    }
+
+    private static class ServerClassLoader extends ClassLoader {
+        public ServerClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        public void definePackageOf(Class<?> clazz) {
+            String name = clazz.getName();
+            String packageName = name.substring(0, name.lastIndexOf('.'));
+            if (getPackage(packageName) == null) {
+                definePackage(packageName, null, null, null, null, null, null, null);
+            }
+        }
+    }
+}
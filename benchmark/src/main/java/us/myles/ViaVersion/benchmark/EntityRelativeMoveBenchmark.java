@@ -0,0 +1,117 @@
+package us.myles.ViaVersion.benchmark;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.openjdk.jmh.annotations.*;
+import us.myles.ViaVersion.api.PacketWrapper;
+import us.myles.ViaVersion.api.data.UserConnection;
+import us.myles.ViaVersion.api.protocol.Protocol;
+import us.myles.ViaVersion.api.remapper.PacketRemapper;
+import us.myles.ViaVersion.api.remapper.ValueTransformer;
+import us.myles.ViaVersion.api.type.Type;
+import us.myles.ViaVersion.packets.Direction;
+import us.myles.ViaVersion.packets.State;
+import us.myles.ViaVersion.protocols.protocol1_9to1_8.packets.EntityPackets;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remaps a 1.8 Entity Relative Move packet with the primitive types used by EntityPackets
+ * and with the boxed ValueTransformer mapping it used before.
+ * Run with "-prof gc" to see the allocation per packet.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@org.openjdk.jmh.annotations.State(Scope.Thread)
+public class EntityRelativeMoveBenchmark {
+    private static final int RELATIVE_MOVE_ID = 0x15;
+
+    private Protocol primitiveProtocol;
+    private Protocol boxedProtocol;
+    private ByteBuf input;
+    private ByteBuf output;
+
+    @Setup
+    public void setup() {
+        primitiveProtocol = new EntityProtocol();
+        boxedProtocol = new BoxedRelativeMoveProtocol();
+
+        input = Unpooled.buffer();
+        Type.PRIMITIVE_VAR_INT.writePrimitive(input, 4213); // Entity ID
+        input.writeByte(12); // X
+        input.writeByte(-3); // Y
+        input.writeByte(27); // Z
+        input.writeBoolean(true); // On Ground
+        output = Unpooled.buffer();
+    }
+
+    @TearDown
+    public void tearDown() {
+        input.release();
+        output.release();
+    }
+
+    @Benchmark
+    public ByteBuf primitive() throws Exception {
+        return remap(primitiveProtocol);
+    }
+
+    @Benchmark
+    public ByteBuf boxed() throws Exception {
+        return remap(boxedProtocol);
+    }
+
+    private ByteBuf remap(Protocol protocol) throws Exception {
+        input.readerIndex(0);
+        output.clear();
+        PacketWrapper wrapper = new PacketWrapper(RELATIVE_MOVE_ID, input, null);
+        protocol.transform(Direction.OUTGOING, State.PLAY, wrapper);
+        wrapper.resetReader();
+        wrapper.writeToBuffer(output);
+        return output;
+    }
+
+    private static class EntityProtocol extends Protocol {
+        @Override
+        protected void registerPackets() {
+            EntityPackets.register(this);
+        }
+
+        @Override
+        public void init(UserConnection userConnection) {
+
+        }
+    }
+
+    private static class BoxedRelativeMoveProtocol extends Protocol {
+        private static final ValueTransformer<Byte, Short> TO_NEW_SHORT = new ValueTransformer<Byte, Short>(Type.SHORT) {
+            @Override
+            public Short transform(PacketWrapper wrapper, Byte inputValue) {
+                return (short) (inputValue * 128);
+            }
+        };
+
+        @Override
+        protected void registerPackets() {
+            registerOutgoing(State.PLAY, 0x15, 0x25, new PacketRemapper() {
+                @Override
+                public void registerMap() {
+                    map(Type.VAR_INT, Type.VAR_INT); // 0 - Entity ID (old / new type, so this is read and written boxed)
+                    map(Type.BYTE, TO_NEW_SHORT); // 1 - X
+                    map(Type.BYTE, TO_NEW_SHORT); // 2 - Y
+                    map(Type.BYTE, TO_NEW_SHORT); // 3 - Z
+
+                    map(Type.BOOLEAN); // 4 - On Ground
+                }
+            });
+        }
+
+        @Override
+        public void init(UserConnection userConnection) {
+
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package us.myles.ViaVersion.benchmark;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.bukkit.Material;
+import org.openjdk.jmh.annotations.*;
+import org.spacehq.opennbt.tag.builtin.CompoundTag;
+import org.spacehq.opennbt.tag.builtin.ListTag;
+import org.spacehq.opennbt.tag.builtin.StringTag;
+import org.spacehq.opennbt.tag.builtin.Tag;
+import us.myles.ViaVersion.ViaVersionPlugin;
+import us.myles.ViaVersion.api.ViaVersion;
+import us.myles.ViaVersion.api.minecraft.item.Item;
+import us.myles.ViaVersion.api.type.Type;
+import us.myles.ViaVersion.protocols.protocol1_9to1_8.ItemCache;
+import us.myles.ViaVersion.protocols.protocol1_9to1_8.ItemRewriter;
+import us.myles.ViaVersion.protocols.protocol1_9to1_8.Protocol1_9TO1_8;
+
+import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rewrites the items of a 45 slot Window Items packet (a player inventory with spawn eggs, potions, a book and
+ * enchanted gear) and writes them again.
+ * "patch" rewrites the tags as bytes with ItemRewriter, "parsed" is the baseline: a copy of the rewrite from before
+ * the tags were patched, which parses every tag into a CompoundTag and changes the tree.
+ * With an item cache only the first packet is rewritten by "patch", after that every rewritten item is a cache hit.
+ * The baseline never uses the cache.
+ * Run with "-prof gc" to see the allocation per packet.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@org.openjdk.jmh.annotations.State(Scope.Thread)
+public class ItemRewriterBenchmark {
+    @Param({"0", "16"})
+    private int itemCacheSize; // Megabytes
+
+    private Map<Integer, String> entityNames;
+    private Map<Integer, String> potionNames;
+
+    private ByteBuf input;
+    private ByteBuf output;
+
+    @Setup
+    public void setup() throws Exception {
+        BenchmarkEnvironment.install();
+        // The plugin is never loaded, so set the cache it would create
+        Field itemCache = ViaVersionPlugin.class.getDeclaredField("itemCache");
+        itemCache.setAccessible(true);
+        itemCache.set(ViaVersion.getInstance(), itemCacheSize > 0 ? new ItemCache(itemCacheSize * 1024L * 1024L) : null);
+        entityNames = getMap("ENTTIY_ID_TO_NAME");
+        potionNames = getMap("POTION_ID_TO_NAME");
+
+        input = Unpooled.buffer();
+        PipelineBenchmark.Payload.WINDOW_ITEMS.write(input);
+        output = Unpooled.buffer(input.readableBytes() * 2);
+    }
+
+    @TearDown
+    public void tearDown() {
+        input.release();
+        output.release();
+    }
+
+    @Benchmark
+    public ByteBuf patch() throws Exception {
+        return rewrite(false);
+    }
+
+    @Benchmark
+    public ByteBuf parsed() throws Exception {
+        return rewrite(true);
+    }
+
+    private ByteBuf rewrite(boolean parse) throws Exception {
+        input.readerIndex(0);
+        output.clear();
+        output.writeByte(input.readUnsignedByte()); // Window ID
+        Item[] items = Type.ITEM_ARRAY.read(input);
+        for (Item item : items) {
+            if (item == null) continue;
+            if (parse) {
+                item.getTag(); // Every tag used to be parsed when the item was read, and written from the tree
+                toClientParsed(item);
+            } else {
+                ItemRewriter.toClient(item);
+            }
+        }
+        Type.ITEM_ARRAY.write(output, items);
+        return output;
+    }
+
+    private Map<Integer, String> getMap(String name) throws Exception {
+        Field field = ItemRewriter.class.getDeclaredField(name);
+        field.setAccessible(true);
+        return (Map<Integer, String>) field.get(null);
+    }
+
+    /**
+     * ItemRewriter#toClient as it was before the tags were patched
+     */
+    private void toClientParsed(Item item) {
+        if (item.getId() == Material.MONSTER_EGG.getId() && item.getData() != 0) {
+            CompoundTag tag = item.getTag();
+            if (tag == null) {
+                tag = new CompoundTag("tag");
+            }
+            CompoundTag entityTag = new CompoundTag("EntityTag");
+            if (entityNames.containsKey((int) item.getData())) {
+                StringTag id = new StringTag("id", entityNames.get((int) item.getData()));
+                entityTag.put(id);
+                tag.put(entityTag);
+            }
+            item.setTag(tag);
+            item.setData((short) 0);
+        }
+        if (item.getId() == Material.POTION.getId()) {
+            CompoundTag tag = item.getTag();
+            if (tag == null) {
+                tag = new CompoundTag("tag");
+            }
+            if (item.getData() >= 16384) {
+                item.setId((short) 438); // splash id
+                item.setData((short) (item.getData() - 8192));
+            }
+            if (potionNames.containsKey((int) item.getData())) {
+                String name = potionNames.get((int) item.getData());
+                StringTag potion = new StringTag("Potion", "minecraft:" + name);
+                tag.put(potion);
+            }
+            item.setTag(tag);
+            item.setData((short) 0);
+        }
+        if (item.getId() == Material.WRITTEN_BOOK.getId()) {
+            CompoundTag tag = item.getTag();
+            if (tag == null) {
+                tag = new CompoundTag("tag");
+            }
+            ListTag pages = tag.get("pages");
+            if (pages == null) {
+                pages = new ListTag("pages", Collections.<Tag>singletonList(new StringTag(Protocol1_9TO1_8.fixJson(""))));
+                tag.put(pages);
+                item.setTag(tag);
+                return;
+            }
+
+            for (int i = 0; i < pages.size(); i++) {
+                if (!(pages.get(i) instanceof StringTag))
+                    continue;
+                StringTag page = pages.get(i);
+                page.setValue(Protocol1_9TO1_8.fixJson(page.getValue()));
+            }
+            item.setTag(tag);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package us.myles.ViaVersion.benchmark;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.bukkit.entity.EntityType;
+import org.openjdk.jmh.annotations.*;
+import us.myles.ViaVersion.api.minecraft.metadata.Metadata;
+import us.myles.ViaVersion.api.type.Type;
+import us.myles.ViaVersion.protocols.protocol1_9to1_8.Protocol1_9TO1_8;
+import us.myles.ViaVersion.protocols.protocol1_9to1_8.metadata.MetadataRewriter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rewrites the metadata of a hologram armor stand (the full list, as sent when it spawns).
+ * "read" only reads the list, subtract it from "transform" to get the cost of the rewrite.
+ * Run with "-prof gc" to see the allocation per list.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@org.openjdk.jmh.annotations.State(Scope.Thread)
+public class MetadataRewriterBenchmark {
+    private ByteBuf input;
+
+    @Setup
+    public void setup() {
+        BenchmarkEnvironment.install();
+
+        input = Unpooled.buffer();
+        writeByte(input, 0, 0x20); // Invisible
+        input.writeByte(1 << 5 | 1); // Air
+        input.writeShort(300);
+        input.writeByte(4 << 5 | 2); // Name tag
+        byte[] name = "\u00a76\u00a7lDaily rewards \u00a77(click)".getBytes(StandardCharsets.UTF_8);
+        Type.PRIMITIVE_VAR_INT.writePrimitive(input, name.length);
+        input.writeBytes(name);
+        writeByte(input, 3, 1); // Always show name tag
+        writeByte(input, 4, 0); // Silent
+        input.writeByte(3 << 5 | 6); // Health
+        input.writeFloat(20F);
+        input.writeByte(2 << 5 | 7); // Potion effect color
+        input.writeInt(0);
+        writeByte(input, 8, 0); // Potion ambient
+        writeByte(input, 9, 0); // Arrows
+        writeByte(input, 10, 0x01 | 0x08 | 0x10); // Small, no base plate, marker
+        for (int i = 11; i <= 16; i++) { // Head, body, arms and legs rotation
+            input.writeByte(7 << 5 | i);
+            input.writeFloat(0F);
+            input.writeFloat(i * 10F);
+            input.writeFloat(0F);
+        }
+        input.writeByte(127); // End of list
+    }
+
+    @TearDown
+    public void tearDown() {
+        input.release();
+    }
+
+    @Benchmark
+    public List<Metadata> read() throws Exception {
+        input.readerIndex(0);
+        return Protocol1_9TO1_8.METADATA_LIST.read(input);
+    }
+
+    @Benchmark
+    public List<Metadata> transform() throws Exception {
+        input.readerIndex(0);
+        List<Metadata> list = Protocol1_9TO1_8.METADATA_LIST.read(input);
+        MetadataRewriter.transform(EntityType.ARMOR_STAND, list);
+        return list;
+    }
+
+    private static void writeByte(ByteBuf buf, int index, int value) {
+        buf.writeByte(index);
+        buf.writeByte(value);
+    }
+}
@@ -0,0 +1,268 @@
+package us.myles.ViaVersion.benchmark;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.bukkit.entity.EntityType;
+import org.openjdk.jmh.annotations.*;
+import org.spacehq.opennbt.tag.builtin.CompoundTag;
+import org.spacehq.opennbt.tag.builtin.IntTag;
+import org.spacehq.opennbt.tag.builtin.ListTag;
+import org.spacehq.opennbt.tag.builtin.ShortTag;
+import org.spacehq.opennbt.tag.builtin.StringTag;
+import org.spacehq.opennbt.tag.builtin.Tag;
+import us.myles.ViaVersion.api.PacketWrapper;
+import us.myles.ViaVersion.api.data.UserConnection;
+import us.myles.ViaVersion.api.minecraft.item.Item;
+import us.myles.ViaVersion.api.protocol.ProtocolPipeline;
+import us.myles.ViaVersion.api.type.Type;
+import us.myles.ViaVersion.packets.Direction;
+import us.myles.ViaVersion.packets.State;
+import us.myles.ViaVersion.protocols.base.ProtocolInfo;
+import us.myles.ViaVersion.protocols.protocol1_9to1_8.Protocol1_9TO1_8;
+import us.myles.ViaVersion.protocols.protocol1_9to1_8.storage.EntityTracker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs typical 1.8 play packets through a full 1.8 to 1.9 ProtocolPipeline, the same way ViaEncodeHandler does.
+ * The payloads aren't captured from a server, they're built in code to match the packets a vanilla 1.8 server sends
+ * when a player joins (field layout, sizes and tag contents), so they can change with the protocol code.
+ * Run with "-prof gc" to get the allocation rate per packet type next to the throughput.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@org.openjdk.jmh.annotations.State(Scope.Thread)
+public class PipelineBenchmark {
+    private static final int ENTITY_ID = 3104;
+    private static final int ZOMBIE_TYPE = 54;
+
+    @Param({"CHUNK_DATA", "ENTITY_METADATA", "SPAWN_MOB", "WINDOW_ITEMS", "CHAT"})
+    private Payload payload;
+
+    private UserConnection user;
+    private ProtocolPipeline pipeline;
+    private ByteBuf input;
+    private ByteBuf output;
+
+    @Setup
+    public void setup() throws Exception {
+        BenchmarkEnvironment.install();
+
+        user = new UserConnection(null);
+        pipeline = new ProtocolPipeline(user);
+        pipeline.add(new Protocol1_9TO1_8());
+        ProtocolInfo info = user.get(ProtocolInfo.class);
+        info.setState(State.PLAY);
+        info.setUsername("Notch");
+        info.setUuid(UUID.fromString("069a79f4-44e9-4726-a5be-fca90e38aaf5"));
+        // The metadata packet is for an entity the client already knows about
+        user.get(EntityTracker.class).setEntityType(ENTITY_ID, EntityType.ZOMBIE);
+
+        input = Unpooled.buffer();
+        payload.write(input);
+        output = Unpooled.buffer(input.readableBytes());
+    }
+
+    @TearDown
+    public void tearDown() {
+        input.release();
+        output.release();
+    }
+
+    @Benchmark
+    public ByteBuf transform() throws Exception {
+        input.readerIndex(0);
+        output.clear();
+        PacketWrapper wrapper = new PacketWrapper(payload.getId(), input, user);
+        pipeline.transform(Direction.OUTGOING, State.PLAY, wrapper);
+        wrapper.writeToBuffer(output);
+        return output;
+    }
+
+    /**
+     * Hand-built 1.8 packets, written field by field like the server's packet classes write them
+     */
+    public enum Payload {
+        CHUNK_DATA(0x21) {
+            @Override
+            public void write(ByteBuf buf) throws Exception {
+                int sections = 5; // Bedrock up to just above sea level
+                buf.writeInt(-12); // Chunk X
+                buf.writeInt(7); // Chunk Z
+                buf.writeBoolean(true); // Ground-up continuous
+                buf.writeShort((1 << sections) - 1); // Primary bitmask
+                Type.PRIMITIVE_VAR_INT.writePrimitive(buf, sections * (8192 + 2048 + 2048) + 256);
+                // Blocks, little endian (id << 4 | data)
+                for (int section = 0; section < sections; section++) {
+                    for (int i = 0; i < 4096; i++) {
+                        int block = blockAt(section * 16 + (i >> 8), i);
+                        buf.writeByte(block & 0xFF);
+                        buf.writeByte(block >> 8);
+                    }
+                }
+                // Block light
+                for (int section = 0; section < sections; section++) {
+                    buf.writeZero(2048);
+                }
+                // Sky light
+                for (int section = 0; section < sections; section++) {
+                    for (int i = 0; i < 2048; i++) {
+                        buf.writeByte(section * 16 + (i >> 7) >= 64 ? 0xFF : 0x00);
+                    }
+                }
+                // Biomes
+                for (int i = 0; i < 256; i++) {
+                    buf.writeByte(i % 37 == 0 ? 4 : 1); // Plains with a bit of forest
+                }
+            }
+
+            private int blockAt(int y, int index) {
+                if (y == 0) return 7 << 4; // Bedrock
+                if (y < 59) {
+                    if (index % 53 == 0) return 16 << 4; // Coal ore
+                    if (index % 89 == 0) return 15 << 4; // Iron ore
+                    return index % 7 == 0 ? (1 << 4) | 5 : 1 << 4; // Stone / andesite
+                }
+                if (y < 63) return 3 << 4; // Dirt
+                if (y == 63) return 2 << 4; // Grass
+                if (y == 64 && index % 13 == 0) return (31 << 4) | 1; // Tall grass
+                return 0; // Air
+            }
+        },
+        ENTITY_METADATA(0x1C) {
+            @Override
+            public void write(ByteBuf buf) throws Exception {
+                Type.PRIMITIVE_VAR_INT.writePrimitive(buf, ENTITY_ID);
+                writeMetaHeader(buf, 0, 0); // Status (on fire)
+                buf.writeByte(0x01);
+                writeMetaHeader(buf, 1, 1); // Air
+                buf.writeShort(300);
+                writeMetaHeader(buf, 3, 6); // Health
+                buf.writeFloat(14F);
+                buf.writeByte(127); // End of metadata
+            }
+        },
+        SPAWN_MOB(0x0F) {
+            @Override
+            public void write(ByteBuf buf) throws Exception {
+                Type.PRIMITIVE_VAR_INT.writePrimitive(buf, ENTITY_ID);
+                buf.writeByte(ZOMBIE_TYPE);
+                buf.writeInt(-6211); // X (fixed point)
+                buf.writeInt(2048); // Y
+                buf.writeInt(3853); // Z
+                buf.writeByte(-97); // Yaw
+                buf.writeByte(0); // Pitch
+                buf.writeByte(-97); // Head Pitch
+                buf.writeShort(0); // Velocity X
+                buf.writeShort(-627); // Velocity Y
+                buf.writeShort(0); // Velocity Z
+                writeMetaHeader(buf, 0, 0); // Status
+                buf.writeByte(0);
+                writeMetaHeader(buf, 1, 1); // Air
+                buf.writeShort(300);
+                writeMetaHeader(buf, 4, 2); // Name tag
+                Type.STRING.write(buf, "");
+                writeMetaHeader(buf, 0, 3); // Always show name tag
+                buf.writeByte(0);
+                writeMetaHeader(buf, 0, 4); // Silent
+                buf.writeByte(0);
+                writeMetaHeader(buf, 3, 6); // Health
+                buf.writeFloat(20F);
+                writeMetaHeader(buf, 2, 7); // Potion effect color
+                buf.writeInt(0);
+                writeMetaHeader(buf, 0, 8); // Potion ambient
+                buf.writeByte(0);
+                writeMetaHeader(buf, 0, 9); // Arrows
+                buf.writeByte(0);
+                writeMetaHeader(buf, 0, 15); // No AI
+                buf.writeByte(0);
+                writeMetaHeader(buf, 0, 12); // Child
+                buf.writeByte(0);
+                writeMetaHeader(buf, 0, 13); // Villager
+                buf.writeByte(0);
+                writeMetaHeader(buf, 0, 14); // Converting
+                buf.writeByte(0);
+                buf.writeByte(127); // End of metadata
+            }
+        },
+        WINDOW_ITEMS(0x30) {
+            @Override
+            public void write(ByteBuf buf) throws Exception {
+                Item[] items = new Item[45]; // Player inventory
+                items[5] = new Item((short) 310, (byte) 1, (short) 12, enchanted(0, 4)); // Diamond helmet
+                items[6] = new Item((short) 311, (byte) 1, (short) 0, enchanted(0, 4)); // Diamond chestplate
+                items[9] = new Item((short) 4, (byte) 64, (short) 0, null); // Cobblestone
+                items[10] = new Item((short) 4, (byte) 41, (short) 0, null);
+                items[11] = new Item((short) 17, (byte) 64, (short) 2, null); // Birch log
+                items[14] = new Item((short) 383, (byte) 3, (short) ZOMBIE_TYPE, null); // Zombie spawn egg
+                items[15] = new Item((short) 373, (byte) 1, (short) 8193, null); // Regeneration potion
+                items[16] = new Item((short) 373, (byte) 1, (short) 16421, null); // Splash healing potion
+                items[20] = new Item((short) 387, (byte) 1, (short) 0, book()); // Written book
+                items[22] = new Item((short) 263, (byte) 17, (short) 0, null); // Coal
+                items[27] = new Item((short) 3, (byte) 64, (short) 0, null); // Dirt
+                items[36] = new Item((short) 276, (byte) 1, (short) 7, enchanted(16, 5)); // Diamond sword
+                items[37] = new Item((short) 261, (byte) 1, (short) 0, enchanted(48, 3)); // Bow
+                items[38] = new Item((short) 278, (byte) 1, (short) 102, enchanted(32, 4)); // Diamond pickaxe
+                items[39] = new Item((short) 364, (byte) 23, (short) 0, null); // Steak
+                items[40] = new Item((short) 262, (byte) 64, (short) 0, null); // Arrows
+                items[44] = new Item((short) 50, (byte) 12, (short) 0, null); // Torch
+
+                buf.writeByte(0); // Window ID
+                Type.ITEM_ARRAY.write(buf, items);
+            }
+
+            private CompoundTag enchanted(int id, int level) {
+                CompoundTag enchantment = new CompoundTag("");
+                enchantment.put(new ShortTag("id", (short) id));
+                enchantment.put(new ShortTag("lvl", (short) level));
+                CompoundTag tag = new CompoundTag("tag");
+                tag.put(new ListTag("ench", Arrays.<Tag>asList(enchantment)));
+                tag.put(new IntTag("RepairCost", 3));
+                return tag;
+            }
+
+            private CompoundTag book() {
+                List<Tag> pages = new ArrayList<>();
+                for (int i = 1; i <= 3; i++) {
+                    pages.add(new StringTag("", "Page " + i + " of the server rules, please read them carefully."));
+                }
+                CompoundTag tag = new CompoundTag("tag");
+                tag.put(new StringTag("author", "Notch"));
+                tag.put(new StringTag("title", "Rules"));
+                tag.put(new ListTag("pages", pages));
+                return tag;
+            }
+        },
+        CHAT(0x02) {
+            @Override
+            public void write(ByteBuf buf) throws Exception {
+                Type.STRING.write(buf, "{\"extra\":[{\"color\":\"gold\",\"text\":\"[Server] \"},{\"text\":\"Welcome back, \"},"
+                        + "{\"color\":\"aqua\",\"bold\":true,\"text\":\"Notch\"}],\"text\":\"\"}");
+                buf.writeByte(0); // Position (chat box)
+            }
+        };
+
+        private final int id;
+
+        Payload(int id) {
+            this.id = id;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public abstract void write(ByteBuf buf) throws Exception;
+
+        private static void writeMetaHeader(ByteBuf buf, int type, int index) {
+            buf.writeByte((type << 5) | (index & 0x1F));
+        }
+    }
+}
@@ -17,12 +17,16 @@ import us.myles.ViaVersion.api.boss.BossBar;
 import us.myles.ViaVersion.api.boss.BossColor;
 import us.myles.ViaVersion.api.boss.BossStyle;
 import us.myles.ViaVersion.api.command.ViaVersionCommand;
+import us.myles.ViaVersion.api.data.PacketMetrics;
 import us.myles.ViaVersion.api.data.UserConnection;
 import us.myles.ViaVersion.api.protocol.ProtocolRegistry;
 import us.myles.ViaVersion.boss.ViaBossBar;
 import us.myles.ViaVersion.commands.ViaCommandHandler;
+import us.myles.ViaVersion.handlers.TranslationExecutor;
 import us.myles.ViaVersion.handlers.ViaVersionInitializer;
 import us.myles.ViaVersion.protocols.base.ProtocolInfo;
+import us.myles.ViaVersion.protocols.protocol1_9to1_8.ItemCache;
+import us.myles.ViaVersion.protocols.protocol1_9to1_8.chunks.ChunkCache;
 import us.myles.ViaVersion.update.UpdateListener;
 import us.myles.ViaVersion.update.UpdateUtil;
 import us.myles.ViaVersion.util.Configuration;
@@ -48,11 +52,24 @@ public class ViaVersionPlugin extends JavaPlugin implements ViaVersionAPI, ViaVe
     private List<Pair<Field, Object>> injectedLists = new ArrayList<>();
     private ViaCommandHandler commandHandler;
     private boolean debug = false;
+    private final PacketMetrics closedMetrics = new PacketMetrics();
+    private TranslationExecutor translationExecutor;
+    private ChunkCache chunkCache;
+    private ItemCache itemCache;
 
     @Override
     public void onLoad() {
         ViaVersion.setInstance(this);
         generateConfig();
+        if (getChunkTranslationThreads() > 0) {
+            translationExecutor = new TranslationExecutor(getChunkTranslationThreads());
+        }
+        if (getChunkCacheSize() > 0) {
+            chunkCache = new ChunkCache(getChunkCacheSize() * 1024L * 1024L);
+        }
+        if (getItemCacheSize() > 0) {
+            itemCache = new ItemCache(getItemCacheSize() * 1024L * 1024L);
+        }
         if (System.getProperty("ViaVersion") != null) {
             if (Bukkit.getPluginManager().getPlugin("ProtocolLib") != null) {
                 getLogger().severe("ViaVersion is already loaded, we're going to kick all the players... because otherwise we'll crash because of ProtocolLib.");
@@ -103,6 +120,9 @@ public class ViaVersionPlugin extends JavaPlugin implements ViaVersionAPI, ViaVe
     public void onDisable() {
         getLogger().info("ViaVersion is disabling, if this is a reload it may not work.");
         uninject();
+        if (translationExecutor != null) {
+            translationExecutor.shutdown();
+        }
     }
 
     public void gatherProtocolVersion() {
@@ -393,6 +413,53 @@ public class ViaVersionPlugin extends JavaPlugin implements ViaVersionAPI, ViaVe
         return isPreventCollision() && getConfig().getBoolean("auto-team", true);
     }
 
+    public int getChunkTranslationThreads() {
+        return getConfig().getInt("chunk-translation-threads", 0);
+    }
+
+    /**
+     * Get the executor chunks are translated on
+     *
+     * @return The executor, null if chunks are translated on the netty threads
+     */
+    public TranslationExecutor getTranslationExecutor() {
+        return translationExecutor;
+    }
+
+    public int getChunkCacheSize() {
+        return getConfig().getInt("chunk-cache-size", 0);
+    }
+
+    public int getItemCacheSize() {
+        return getConfig().getInt("item-cache-size", 0);
+    }
+
+    public boolean isDirectChunkBulk() {
+        return getConfig().getBoolean("direct-chunk-bulk", false);
+    }
+
+    public boolean isDeterministicEntityUUIDs() {
+        return getConfig().getBoolean("deterministic-entity-uuids", false);
+    }
+
+    /**
+     * Get the cache of translated chunks
+     *
+     * @return The cache, null if chunks aren't cached
+     */
+    public ChunkCache getChunkCache() {
+        return chunkCache;
+    }
+
+    /**
+     * Get the cache of rewritten items
+     *
+     * @return The cache, null if items aren't cached
+     */
+    public ItemCache getItemCache() {
+        return itemCache;
+    }
+
     public void addPortedClient(UserConnection info) {
         portedPlayers.put(info.get(ProtocolInfo.class).getUuid(), info);
     }
@@ -401,6 +468,36 @@ public class ViaVersionPlugin extends JavaPlugin implements ViaVersionAPI, ViaVe
         portedPlayers.remove(clientID);
     }
 
+    /**
+     * Add the metrics of a closed connection to the global metrics
+     *
+     * @param metrics The metrics of the connection
+     */
+    public void addClosedMetrics(PacketMetrics metrics) {
+        metrics.close();
+        synchronized (closedMetrics) {
+            closedMetrics.add(metrics);
+        }
+    }
+
+    /**
+     * Get the packet metrics of all connections since the server started
+     *
+     * @return A new copy of the global metrics
+     */
+    public PacketMetrics getGlobalMetrics() {
+        PacketMetrics global = new PacketMetrics();
+        synchronized (closedMetrics) {
+            global.add(closedMetrics);
+        }
+        for (UserConnection connection : portedPlayers.values()) {
+            if (!connection.getMetrics().isClosed()) {
+                global.add(connection.getMetrics());
+            }
+        }
+        return global;
+    }
+
     public void run(final Runnable runnable, boolean wait) {
         try {
             Future f = Bukkit.getScheduler().callSyncMethod(Bukkit.getPluginManager().getPlugin("ViaVersion"), new Callable<Boolean>() {
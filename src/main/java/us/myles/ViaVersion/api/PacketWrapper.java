@@ -7,6 +7,7 @@ import lombok.Getter;
 import lombok.Setter;
 import us.myles.ViaVersion.api.data.UserConnection;
 import us.myles.ViaVersion.api.remapper.ValueCreator;
+import us.myles.ViaVersion.api.type.PrimitiveType;
 import us.myles.ViaVersion.api.type.Type;
 import us.myles.ViaVersion.api.type.TypeConverter;
 import us.myles.ViaVersion.exception.InformativeException;
@@ -15,22 +16,29 @@ import us.myles.ViaVersion.util.PipelineUtil;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.Arrays;
 import java.util.List;
 
 public class PacketWrapper {
     private final ByteBuf inputBuffer;
+    private final int inputStart;
+    private final int inputEnd;
     private final UserConnection userConnection;
     private boolean send = true;
     @Setter
     @Getter
     private int id = -1;
-    private LinkedList<Pair<Type, Object>> readableObjects = new LinkedList<>();
-    private List<Pair<Type, Object>> packetValues = new ArrayList<>();
+    // Values left by the previous protocols, read from readIndex onwards (earlier values were read and not written)
+    private ValueList readableObjects = new ValueList();
+    private int readIndex = 0;
+    // Values written to the output
+    private ValueList packetValues = new ValueList();
 
     public PacketWrapper(int packetID, ByteBuf inputBuffer, UserConnection userConnection) {
         this.id = packetID;
         this.inputBuffer = inputBuffer;
+        this.inputStart = inputBuffer == null ? 0 : inputBuffer.readerIndex();
+        this.inputEnd = inputBuffer == null ? 0 : inputBuffer.writerIndex();
         this.userConnection = userConnection;
     }
 
@@ -42,14 +50,9 @@ public class PacketWrapper {
      * @return The requested type or throws ArrayIndexOutOfBounds
      */
     public <T> T get(Type<T> type, int index) throws Exception {
-        int currentIndex = 0;
-        for (Pair<Type, Object> packetValue : packetValues) {
-            if (packetValue.getKey() == type) { // Ref check
-                if (currentIndex == index) {
-                    return (T) packetValue.getValue();
-                }
-                currentIndex++;
-            }
+        int slot = packetValues.slot(type, index);
+        if (slot != -1) {
+            return (T) packetValues.valueAt(slot);
         }
 
         Exception e = new ArrayIndexOutOfBoundsException("Could not find type " + type.getTypeName() + " at " + index);
@@ -64,15 +67,10 @@ public class PacketWrapper {
      * @param value The value of the part you wish to set it to.
      */
     public <T> void set(Type<T> type, int index, T value) throws Exception {
-        int currentIndex = 0;
-        for (Pair<Type, Object> packetValue : packetValues) {
-            if (packetValue.getKey() == type) { // Ref check
-                if (currentIndex == index) {
-                    packetValue.setValue(value);
-                    return;
-                }
-                currentIndex++;
-            }
+        int slot = packetValues.slot(type, index);
+        if (slot != -1) {
+            packetValues.values[slot] = value;
+            return;
         }
         Exception e = new ArrayIndexOutOfBoundsException("Could not find type " + type.getTypeName() + " at " + index);
         throw new InformativeException(e).set("Type", type.getTypeName()).set("Index", index).set("Packet ID", getId());
@@ -87,7 +85,7 @@ public class PacketWrapper {
      */
     public <T> T read(Type<T> type) throws Exception {
         if (type == Type.NOTHING) return null;
-        if (readableObjects.isEmpty()) {
+        if (readIndex >= readableObjects.size) {
             Preconditions.checkNotNull(inputBuffer, "This packet does not have an input buffer.");
             // We could in the future log input read values, but honestly for things like bulk maps, mem waste D:
             try {
@@ -96,16 +94,14 @@ public class PacketWrapper {
                 throw new InformativeException(e).set("Type", type.getTypeName()).set("Packet ID", getId()).set("Data", packetValues);
             }
         } else {
-            Pair<Type, Object> read = readableObjects.poll();
-            if (read.getKey().equals(type)) {
-                return (T) read.getValue();
+            Type readType = readableObjects.types[readIndex];
+            Object readValue = readableObjects.valueAt(readIndex);
+            readIndex++;
+            if (readType.equals(type)) {
+                return (T) readValue;
             } else {
-                if (type == Type.NOTHING) {
-                    return read(type); // retry
-                } else {
-                    Exception e = new IOException("Unable to read type " + type.getTypeName() + ", found " + read.getKey().getTypeName());
-                    throw new InformativeException(e).set("Type", type.getTypeName()).set("Packet ID", getId()).set("Data", packetValues);
-                }
+                Exception e = new IOException("Unable to read type " + type.getTypeName() + ", found " + readType.getTypeName());
+                throw new InformativeException(e).set("Type", type.getTypeName()).set("Packet ID", getId()).set("Data", packetValues);
             }
         }
     }
@@ -127,7 +123,7 @@ public class PacketWrapper {
                 }
             }
         }
-        packetValues.add(new Pair<Type, Object>(type, value));
+        packetValues.add(type, value);
     }
 
     /**
@@ -143,6 +139,241 @@ public class PacketWrapper {
         return value;
     }
 
+    /**
+     * Read an int from the input without boxing it.
+     *
+     * @param type The type you wish to read (INT / VAR_INT)
+     * @return The value read
+     * @throws Exception If it fails to read
+     */
+    public int readInt(Type<Integer> type) throws Exception {
+        return (int) readBits(primitive(type));
+    }
+
+    /**
+     * Write an int to the output without boxing it.
+     *
+     * @param type  The type to write (INT / VAR_INT)
+     * @param value The value to write
+     */
+    public void writeInt(Type<Integer> type, int value) {
+        packetValues.addBits(primitive(type), value);
+    }
+
+    /**
+     * Take an int from the input and write it to the output without boxing it.
+     *
+     * @param type The type to read and write (INT / VAR_INT)
+     * @return The value which was read/written
+     * @throws Exception If it fails to read
+     */
+    public int passthroughInt(Type<Integer> type) throws Exception {
+        int value = readInt(type);
+        writeInt(type, value);
+        return value;
+    }
+
+    /**
+     * Get an int from the output without boxing it.
+     *
+     * @param type  The type of the part you wish to get (INT / VAR_INT)
+     * @param index The index of the part (relative to the type)
+     * @return The requested value
+     * @throws Exception If there is no such part
+     */
+    public int getInt(Type<Integer> type, int index) throws Exception {
+        return (int) getBits(primitive(type), index);
+    }
+
+    /**
+     * Set an int in the output without boxing it.
+     *
+     * @param type  The type of the part you wish to set (INT / VAR_INT)
+     * @param index The index of the part (relative to the type)
+     * @param value The value of the part you wish to set it to.
+     * @throws Exception If there is no such part
+     */
+    public void setInt(Type<Integer> type, int index, int value) throws Exception {
+        setBits(primitive(type), index, value);
+    }
+
+    /**
+     * Read a double from the input without boxing it.
+     *
+     * @param type The type you wish to read
+     * @return The value read
+     * @throws Exception If it fails to read
+     */
+    public double readDouble(Type<Double> type) throws Exception {
+        return Double.longBitsToDouble(readBits(primitive(type)));
+    }
+
+    /**
+     * Write a double to the output without boxing it.
+     *
+     * @param type  The type to write
+     * @param value The value to write
+     */
+    public void writeDouble(Type<Double> type, double value) {
+        packetValues.addBits(primitive(type), Double.doubleToRawLongBits(value));
+    }
+
+    /**
+     * Take a double from the input and write it to the output without boxing it.
+     *
+     * @param type The type to read and write
+     * @return The value which was read/written
+     * @throws Exception If it fails to read
+     */
+    public double passthroughDouble(Type<Double> type) throws Exception {
+        double value = readDouble(type);
+        writeDouble(type, value);
+        return value;
+    }
+
+    /**
+     * Get a double from the output without boxing it.
+     *
+     * @param type  The type of the part you wish to get
+     * @param index The index of the part (relative to the type)
+     * @return The requested value
+     * @throws Exception If there is no such part
+     */
+    public double getDouble(Type<Double> type, int index) throws Exception {
+        return Double.longBitsToDouble(getBits(primitive(type), index));
+    }
+
+    /**
+     * Set a double in the output without boxing it.
+     *
+     * @param type  The type of the part you wish to set
+     * @param index The index of the part (relative to the type)
+     * @param value The value of the part you wish to set it to.
+     * @throws Exception If there is no such part
+     */
+    public void setDouble(Type<Double> type, int index, double value) throws Exception {
+        setBits(primitive(type), index, Double.doubleToRawLongBits(value));
+    }
+
+    /**
+     * Read a short from the input without boxing it.
+     *
+     * @param type The type you wish to read
+     * @return The value read
+     * @throws Exception If it fails to read
+     */
+    public short readShort(Type<Short> type) throws Exception {
+        return (short) readBits(primitive(type));
+    }
+
+    /**
+     * Write a short to the output without boxing it.
+     *
+     * @param type  The type to write
+     * @param value The value to write
+     */
+    public void writeShort(Type<Short> type, short value) {
+        packetValues.addBits(primitive(type), value);
+    }
+
+    /**
+     * Read a byte from the input without boxing it.
+     *
+     * @param type The type you wish to read
+     * @return The value read
+     * @throws Exception If it fails to read
+     */
+    public byte readByte(Type<Byte> type) throws Exception {
+        return (byte) readBits(primitive(type));
+    }
+
+    /**
+     * Write a byte to the output without boxing it.
+     *
+     * @param type  The type to write
+     * @param value The value to write
+     */
+    public void writeByte(Type<Byte> type, byte value) {
+        packetValues.addBits(primitive(type), value);
+    }
+
+    /**
+     * Read a float from the input without boxing it.
+     *
+     * @param type The type you wish to read
+     * @return The value read
+     * @throws Exception If it fails to read
+     */
+    public float readFloat(Type<Float> type) throws Exception {
+        return Float.intBitsToFloat((int) readBits(primitive(type)));
+    }
+
+    /**
+     * Write a float to the output without boxing it.
+     *
+     * @param type  The type to write
+     * @param value The value to write
+     */
+    public void writeFloat(Type<Float> type, float value) {
+        packetValues.addBits(primitive(type), Float.floatToRawIntBits(value));
+    }
+
+    /**
+     * Take any primitive from the input and write it to the output without boxing it.
+     *
+     * @param type The type to read and write
+     * @throws Exception If it fails to read
+     */
+    public void passthroughPrimitive(Type type) throws Exception {
+        PrimitiveType primitiveType = primitive(type);
+        packetValues.addBits(primitiveType, readBits(primitiveType));
+    }
+
+    /**
+     * The primitive methods take the number types declared as Type in {@link Type}, they're all PrimitiveTypes.
+     */
+    private static PrimitiveType primitive(Type type) {
+        Preconditions.checkArgument(type instanceof PrimitiveType, "%s is not a primitive type", type.getTypeName());
+        return (PrimitiveType) type;
+    }
+
+    private long readBits(PrimitiveType type) throws Exception {
+        if (readIndex >= readableObjects.size) {
+            Preconditions.checkNotNull(inputBuffer, "This packet does not have an input buffer.");
+            try {
+                return type.readBits(inputBuffer);
+            } catch (Exception e) {
+                throw new InformativeException(e).set("Type", type.getTypeName()).set("Packet ID", getId()).set("Data", packetValues);
+            }
+        }
+        Type readType = readableObjects.types[readIndex];
+        int position = readIndex++;
+        if (readType.equals(type)) {
+            return readableObjects.bitsAt(position);
+        }
+        Exception e = new IOException("Unable to read type " + type.getTypeName() + ", found " + readType.getTypeName());
+        throw new InformativeException(e).set("Type", type.getTypeName()).set("Packet ID", getId()).set("Data", packetValues);
+    }
+
+    private long getBits(PrimitiveType type, int index) throws Exception {
+        int slot = packetValues.slot(type, index);
+        if (slot != -1) {
+            return packetValues.bitsAt(slot);
+        }
+        Exception e = new ArrayIndexOutOfBoundsException("Could not find type " + type.getTypeName() + " at " + index);
+        throw new InformativeException(e).set("Type", type.getTypeName()).set("Index", index).set("Packet ID", getId()).set("Data", packetValues);
+    }
+
+    private void setBits(PrimitiveType type, int index, long bits) throws Exception {
+        int slot = packetValues.slot(type, index);
+        if (slot != -1) {
+            packetValues.setBits(slot, bits);
+            return;
+        }
+        Exception e = new ArrayIndexOutOfBoundsException("Could not find type " + type.getTypeName() + " at " + index);
+        throw new InformativeException(e).set("Type", type.getTypeName()).set("Index", index).set("Packet ID", getId());
+    }
+
     /**
      * Write the current output to a buffer.
      *
@@ -151,33 +382,55 @@ public class PacketWrapper {
      */
     public void writeToBuffer(ByteBuf buffer) throws Exception {
         if (id != -1) {
-            Type.VAR_INT.write(buffer, id);
+            Type.PRIMITIVE_VAR_INT.writePrimitive(buffer, id);
+        }
+        for (int i = 0; i < packetValues.size; i++) {
+            writeValue(buffer, packetValues, i, i);
         }
-        if (readableObjects.size() > 0) {
-            packetValues.addAll(readableObjects);
+        // Anything not read from the previous protocol goes after the output
+        for (int i = readIndex; i < readableObjects.size; i++) {
+            writeValue(buffer, readableObjects, i, packetValues.size + i - readIndex);
         }
+        writeRemaining(buffer);
+    }
 
-        int index = 0;
-        for (Pair<Type, Object> packetValue : packetValues) {
-            try {
-                Object value = packetValue.getValue();
-                if (value != null) {
-                    if (!packetValue.getKey().getOutputClass().isAssignableFrom(value.getClass())) {
-                        // attempt conversion
-                        if (packetValue.getKey() instanceof TypeConverter) {
-                            value = ((TypeConverter) packetValue.getKey()).from(value);
-                        } else {
-                            System.out.println("Possible type mismatch: " + value.getClass().getName() + " -> " + packetValue.getKey().getOutputClass());
-                        }
+    private void writeValue(ByteBuf buffer, ValueList list, int position, int index) throws Exception {
+        Type type = list.types[position];
+        Object value = list.values[position];
+        try {
+            if (value == ValueList.BITS) {
+                ((PrimitiveType) type).writeBits(buffer, list.bits[position]);
+                return;
+            }
+            if (value != null) {
+                if (!type.getOutputClass().isAssignableFrom(value.getClass())) {
+                    // attempt conversion
+                    if (type instanceof TypeConverter) {
+                        value = ((TypeConverter) type).from(value);
+                    } else {
+                        System.out.println("Possible type mismatch: " + value.getClass().getName() + " -> " + type.getOutputClass());
                     }
                 }
-                packetValue.getKey().write(buffer, value);
-            } catch (Exception e) {
-                throw new InformativeException(e).set("Index", index).set("Type", packetValue.getKey().getTypeName()).set("Packet ID", getId()).set("Data", packetValues);
             }
-            index++;
+            type.write(buffer, value);
+        } catch (Exception e) {
+            throw new InformativeException(e).set("Index", index).set("Type", type.getTypeName()).set("Packet ID", getId()).set("Data", packetValues);
         }
-        writeRemaining(buffer);
+    }
+
+    /**
+     * Check if the body of this packet is untouched, nothing was read from the input
+     * and nothing was written to the output. (Only the ID may have changed)
+     * When this is true the input buffer can be sent as it is with just the new ID.
+     *
+     * @return True if the input buffer still holds the whole body of the packet
+     */
+    public boolean isBodyUnchanged() {
+        return inputBuffer != null
+                && packetValues.size == 0
+                && readableObjects.size == 0
+                && inputBuffer.readerIndex() == inputStart
+                && inputBuffer.writerIndex() == inputEnd;
     }
 
     /**
@@ -186,7 +439,8 @@ public class PacketWrapper {
     public void clearInputBuffer() {
         if (inputBuffer != null)
             inputBuffer.clear();
-        readableObjects.clear(); // :(
+        readableObjects.clear();
+        readIndex = 0;
     }
 
     private void writeRemaining(ByteBuf output) {
@@ -263,8 +517,19 @@ public class PacketWrapper {
      * Reset the reader, so that it can be read again.
      */
     public void resetReader() {
-        this.readableObjects.addAll(packetValues);
+        // Nothing was written, so the input of the next protocol is what wasn't read.
+        // readIndex stays where it is, it's the start of those values
+        if (packetValues.size == 0) return;
+        // Values which weren't read stay after the output, the same order writeToBuffer uses
+        for (int i = readIndex; i < readableObjects.size; i++) {
+            packetValues.copy(readableObjects, i);
+        }
+        // Swap the lists, the output becomes the input
+        ValueList output = this.readableObjects;
+        this.readableObjects = this.packetValues;
+        this.packetValues = output;
         this.packetValues.clear();
+        this.readIndex = 0;
     }
 
     /**
@@ -276,11 +541,143 @@ public class PacketWrapper {
     public void sendToServer() throws Exception {
         if (!isCancelled()) {
             ByteBuf output = inputBuffer == null ? Unpooled.buffer() : inputBuffer.alloc().buffer();
-            Type.VAR_INT.write(output, ViaDecodeHandler.PASSTHROUGH_ID); // Pass through
+            Type.PRIMITIVE_VAR_INT.writePrimitive(output, ViaDecodeHandler.PASSTHROUGH_ID); // Pass through
 
             writeToBuffer(output);
 
             PipelineUtil.getContextBefore("decompress", user().getChannel().pipeline()).fireChannelRead(output);
         }
     }
+
+    /**
+     * Flat list of types and values, with the positions of each type kept so values can be found by (type, index).
+     */
+    private static class ValueList {
+        private static final int[] NO_SLOTS = new int[0];
+        // Marks a value held in bits (see PrimitiveType)
+        private static final Object BITS = new Object();
+        // Arrays are made on the first add, many wrappers never hold any values
+        private Type[] types;
+        private Object[] values;
+        private long[] bits;
+        private int size = 0;
+        // Per type index, slots[n] holds the positions of indexedTypes[n] with counts[n] in use
+        private Type[] indexedTypes;
+        private int[][] slots;
+        private int[] counts;
+        private int typeCount = 0;
+
+        private void add(Type type, Object value) {
+            if (types == null) {
+                types = new Type[8];
+                values = new Object[8];
+                indexedTypes = new Type[4];
+                slots = new int[4][];
+                counts = new int[4];
+            } else if (size == types.length) {
+                types = Arrays.copyOf(types, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            types[size] = type;
+            values[size] = value;
+            index(type, size);
+            size++;
+        }
+
+        private void addBits(Type type, long value) {
+            add(type, BITS);
+            setBits(size - 1, value);
+        }
+
+        private void copy(ValueList from, int position) {
+            if (from.values[position] == BITS) {
+                addBits(from.types[position], from.bits[position]);
+            } else {
+                add(from.types[position], from.values[position]);
+            }
+        }
+
+        private void setBits(int position, long value) {
+            if (bits == null) {
+                bits = new long[types.length];
+            } else if (bits.length < types.length) {
+                bits = Arrays.copyOf(bits, types.length);
+            }
+            values[position] = BITS;
+            bits[position] = value;
+        }
+
+        private Object valueAt(int position) {
+            Object value = values[position];
+            return value == BITS ? ((PrimitiveType) types[position]).box(bits[position]) : value;
+        }
+
+        private long bitsAt(int position) {
+            Object value = values[position];
+            return value == BITS ? bits[position] : ((PrimitiveType) types[position]).unbox(value);
+        }
+
+        private void index(Type type, int position) {
+            int n = typeIndex(type);
+            if (n == -1) {
+                if (typeCount == indexedTypes.length) {
+                    indexedTypes = Arrays.copyOf(indexedTypes, typeCount * 2);
+                    slots = Arrays.copyOf(slots, typeCount * 2);
+                    counts = Arrays.copyOf(counts, typeCount * 2);
+                }
+                n = typeCount++;
+                indexedTypes[n] = type;
+                counts[n] = 0;
+                if (slots[n] == null) {
+                    slots[n] = NO_SLOTS;
+                }
+            }
+            if (counts[n] == slots[n].length) {
+                slots[n] = Arrays.copyOf(slots[n], Math.max(4, counts[n] * 2));
+            }
+            slots[n][counts[n]++] = position;
+        }
+
+        private int typeIndex(Type type) {
+            for (int n = 0; n < typeCount; n++) {
+                if (indexedTypes[n] == type) { // Ref check
+                    return n;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Get the position of a value
+         *
+         * @param type  The type of the value
+         * @param index The index of the value (relative to the type)
+         * @return The position or -1 if there is no such value
+         */
+        private int slot(Type type, int index) {
+            int n = typeIndex(type);
+            if (n == -1 || index < 0 || index >= counts[n]) {
+                return -1;
+            }
+            return slots[n][index];
+        }
+
+        private void clear() {
+            // Drop references so values can be collected
+            if (values != null) {
+                Arrays.fill(values, 0, size, null);
+            }
+            size = 0;
+            typeCount = 0;
+        }
+
+        @Override
+        public String toString() {
+            List<Pair<Type, Object>> list = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                list.add(new Pair<Type, Object>(types[i], valueAt(i)));
+            }
+            return list.toString();
+        }
+    }
 }
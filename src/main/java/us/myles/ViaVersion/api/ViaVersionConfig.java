@@ -86,4 +86,39 @@ public interface ViaVersionConfig {
      * @return true if automatic teaming is enabled
      */
     boolean isAutoTeam();
+
+    /**
+     * Get the amount of threads chunks are translated on, instead of the netty threads
+     *
+     * @return the amount of threads, 0 if chunks are translated on the netty threads
+     */
+    int getChunkTranslationThreads();
+
+    /**
+     * Get the size of the cache of translated chunks, shared by all players
+     *
+     * @return the size in megabytes, 0 if chunks aren't cached
+     */
+    int getChunkCacheSize();
+
+    /**
+     * Get the size of the cache of rewritten items (spawn eggs, potions and books), shared by all players
+     *
+     * @return the size in megabytes, 0 if items aren't cached
+     */
+    int getItemCacheSize();
+
+    /**
+     * Write the chunks of a chunk bulk as 1.9 packets directly, instead of splitting it into 1.8 chunk packets first
+     *
+     * @return true if chunk bulks are written directly
+     */
+    boolean isDirectChunkBulk();
+
+    /**
+     * Derive the UUIDs of entities from their id instead of generating and storing random ones
+     *
+     * @return true if entity UUIDs are derived from the id
+     */
+    boolean isDeterministicEntityUUIDs();
 }
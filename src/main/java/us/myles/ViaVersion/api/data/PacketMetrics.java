@@ -0,0 +1,111 @@
+package us.myles.ViaVersion.api.data;
+
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+import us.myles.ViaVersion.packets.Direction;
+import us.myles.ViaVersion.packets.State;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Packet translation metrics of a connection (or of many, see {@link #add(PacketMetrics)}).
+ * Every connection has its own instance which only its netty thread writes to, so recording
+ * doesn't need any synchronisation. Timing is only done for one in {@link #SAMPLE_RATE} packets.
+ */
+public class PacketMetrics {
+    /**
+     * Time one in this many packets, must be a power of two.
+     */
+    public static final int SAMPLE_RATE = 32;
+
+    // Indexed by [Direction.ordinal()][State.ordinal()][packet id] (grown as packets are seen)
+    private final PacketStats[][][] stats = new PacketStats[Direction.values().length][State.values().length][];
+    private int sampleCounter = 0;
+    @Getter
+    private volatile boolean closed = false;
+
+    /**
+     * Get the stats for a packet, creating them if they don't exist yet
+     *
+     * @param direction The direction of the packet
+     * @param state     The state the connection was in
+     * @param packetID  The packet ID before translation
+     * @return The stats for the packet
+     */
+    public PacketStats get(Direction direction, State state, int packetID) {
+        Preconditions.checkArgument(packetID >= 0, "Packet ID can't be negative: %s", packetID);
+        PacketStats[] table = stats[direction.ordinal()][state.ordinal()];
+        if (table == null || packetID >= table.length) {
+            table = table == null ? new PacketStats[Math.max(packetID + 1, 0x40)] : Arrays.copyOf(table, packetID + 1);
+            stats[direction.ordinal()][state.ordinal()] = table;
+        }
+        PacketStats packetStats = table[packetID];
+        if (packetStats == null) {
+            packetStats = new PacketStats(direction, state, packetID);
+            table[packetID] = packetStats;
+        }
+        return packetStats;
+    }
+
+    /**
+     * Check if the next translation should be timed
+     *
+     * @return True if it should be timed
+     */
+    public boolean shouldSample() {
+        return (sampleCounter++ & (SAMPLE_RATE - 1)) == 0;
+    }
+
+    /**
+     * Add all the stats of other metrics to these metrics
+     *
+     * @param other The metrics to add
+     */
+    public void add(PacketMetrics other) {
+        for (PacketStats packetStats : other.getStats()) {
+            get(packetStats.getDirection(), packetStats.getState(), packetStats.getPacketID()).add(packetStats);
+        }
+    }
+
+    /**
+     * Get all the packets which have stats
+     *
+     * @return A new list of stats
+     */
+    public List<PacketStats> getStats() {
+        List<PacketStats> list = new ArrayList<>();
+        for (PacketStats[][] direction : stats) {
+            for (PacketStats[] table : direction) {
+                if (table == null) continue;
+                for (PacketStats packetStats : table) {
+                    if (packetStats != null) {
+                        list.add(packetStats);
+                    }
+                }
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Get a total of all the packets which have stats
+     *
+     * @return The total stats (id -1)
+     */
+    public PacketStats getTotal() {
+        PacketStats total = new PacketStats(null, null, -1);
+        for (PacketStats packetStats : getStats()) {
+            total.add(packetStats);
+        }
+        return total;
+    }
+
+    /**
+     * Mark these metrics as closed, they will be merged into the global metrics
+     */
+    public void close() {
+        this.closed = true;
+    }
+}
@@ -0,0 +1,128 @@
+package us.myles.ViaVersion.api.data;
+
+import lombok.Getter;
+import us.myles.ViaVersion.packets.Direction;
+import us.myles.ViaVersion.packets.State;
+
+/**
+ * Counters for a single packet type in a single direction.
+ * These are only written by the netty thread of a connection, other threads reading them may be slightly behind.
+ */
+@Getter
+public class PacketStats {
+    /**
+     * Amount of histogram buckets, bucket n holds translations which took less than 2^n microseconds.
+     */
+    public static final int BUCKETS = 20;
+
+    private final Direction direction;
+    private final State state;
+    private final int packetID;
+    private long packets;
+    private long idOnly;
+    private long bytesIn;
+    private long bytesOut;
+    private long cancelled;
+    private long errors;
+    private long timed;
+    private long totalNanos;
+    private long maxNanos;
+    private final long[] histogram = new long[BUCKETS];
+
+    public PacketStats(Direction direction, State state, int packetID) {
+        this.direction = direction;
+        this.state = state;
+        this.packetID = packetID;
+    }
+
+    /**
+     * Record a translated packet
+     *
+     * @param bytesIn  The size before translating
+     * @param bytesOut The size after translating
+     * @param idOnly   True if only the packet ID was rewritten
+     */
+    public void record(int bytesIn, int bytesOut, boolean idOnly) {
+        packets++;
+        if (idOnly) {
+            this.idOnly++;
+        }
+        this.bytesIn += bytesIn;
+        this.bytesOut += bytesOut;
+    }
+
+    /**
+     * Record how long a (sampled) translation took
+     *
+     * @param nanos The time in nanoseconds
+     */
+    public void recordTime(long nanos) {
+        timed++;
+        totalNanos += nanos;
+        if (nanos > maxNanos) {
+            maxNanos = nanos;
+        }
+        histogram[bucket(nanos)]++;
+    }
+
+    public void incrementCancelled() {
+        cancelled++;
+    }
+
+    public void incrementErrors() {
+        errors++;
+    }
+
+    /**
+     * Add the counters of other stats for the same packet to these
+     *
+     * @param other The stats to add
+     */
+    public void add(PacketStats other) {
+        packets += other.packets;
+        idOnly += other.idOnly;
+        bytesIn += other.bytesIn;
+        bytesOut += other.bytesOut;
+        cancelled += other.cancelled;
+        errors += other.errors;
+        timed += other.timed;
+        totalNanos += other.totalNanos;
+        maxNanos = Math.max(maxNanos, other.maxNanos);
+        for (int i = 0; i < BUCKETS; i++) {
+            histogram[i] += other.histogram[i];
+        }
+    }
+
+    /**
+     * Get the average translation time of the sampled packets
+     *
+     * @return The average in nanoseconds, 0 if nothing was sampled
+     */
+    public long getAverageNanos() {
+        return timed == 0 ? 0 : totalNanos / timed;
+    }
+
+    /**
+     * Get an upper bound for a percentile of the sampled translation times
+     *
+     * @param percentile The percentile, between 0 and 1
+     * @return The upper bound of the bucket holding the percentile in nanoseconds, 0 if nothing was sampled
+     */
+    public long getPercentileNanos(double percentile) {
+        if (timed == 0) return 0;
+        long target = (long) Math.ceil(timed * percentile);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += histogram[i];
+            if (seen >= target) {
+                return Math.min((1L << i) * 1000L, maxNanos);
+            }
+        }
+        return maxNanos;
+    }
+
+    private static int bucket(long nanos) {
+        long micros = nanos / 1000L;
+        return Math.min(64 - Long.numberOfLeadingZeros(micros), BUCKETS - 1);
+    }
+}
@@ -2,12 +2,16 @@ package us.myles.ViaVersion.api.data;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.socket.SocketChannel;
 import lombok.Getter;
 import lombok.Setter;
 
 import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class UserConnection {
     @Getter
@@ -23,6 +27,11 @@ public class UserConnection {
     private long sentPackets = 0L;
     @Getter
     private long receivedPackets = 0L;
+    @Getter
+    private final PacketMetrics metrics = new PacketMetrics();
+    // Raw packets waiting to be written on the netty thread
+    private final Queue<ByteBuf> pendingPackets = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
 
 
     public UserConnection(SocketChannel socketChannel) {
@@ -60,21 +69,49 @@ public class UserConnection {
 
     /**
      * Send a raw packet to the player
+     * When not sent on the current thread the packet is queued, all queued packets are
+     * written by a single task on the netty thread and flushed together.
      *
      * @param packet        The raw packet to send
      * @param currentThread Should it run in the same thread
      */
     public void sendRawPacket(final ByteBuf packet, boolean currentThread) {
-        final ChannelHandler handler = channel.pipeline().get("encoder");
         if (currentThread) {
+            final ChannelHandler handler = channel.pipeline().get("encoder");
             channel.pipeline().context(handler).writeAndFlush(packet);
         } else {
-            channel.eventLoop().submit(new Runnable() {
-                @Override
-                public void run() {
-                    channel.pipeline().context(handler).writeAndFlush(packet);
-                }
-            });
+            pendingPackets.add(packet);
+            // Only schedule a flush if there isn't one waiting already
+            if (flushScheduled.compareAndSet(false, true)) {
+                channel.eventLoop().submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        flushPendingPackets();
+                    }
+                });
+            }
+        }
+    }
+
+    private void flushPendingPackets() {
+        // Reset first, anything queued from now on is either written below or schedules a new flush
+        flushScheduled.set(false);
+        ChannelHandlerContext context = channel.pipeline().context("encoder");
+        ByteBuf packet;
+        if (context == null || !channel.isActive()) {
+            // Nothing can be written anymore, release what's left so it doesn't leak
+            while ((packet = pendingPackets.poll()) != null) {
+                packet.release();
+            }
+            return;
+        }
+        boolean written = false;
+        while ((packet = pendingPackets.poll()) != null) {
+            context.write(packet);
+            written = true;
+        }
+        if (written) {
+            context.flush();
         }
     }
 
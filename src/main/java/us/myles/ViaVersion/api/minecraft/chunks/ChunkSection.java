@@ -1,11 +1,10 @@
 package us.myles.ViaVersion.api.minecraft.chunks;
 
-import com.google.common.collect.Lists;
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
 import us.myles.ViaVersion.api.type.Type;
+import us.myles.ViaVersion.util.PipelineUtil;
 
-import java.util.List;
+import java.util.Arrays;
 
 public class ChunkSection {
     /**
@@ -20,7 +19,18 @@ public class ChunkSection {
      * Length of the block data array.
      */
 
-    private final List<Integer> palette = Lists.newArrayList();
+    /**
+     * Palette entries (type << 4 | data), followed by unused space.
+     */
+    private int[] palette = new int[16];
+    private int paletteSize;
+    /**
+     * Open addressing table from a palette entry to its index + 1 (0 is an empty slot).
+     */
+    private int[] paletteLookup = new int[64];
+    // The last block set, chunks have long runs of the same block
+    private int lastHash;
+    private int lastIndex;
     private final int[] blocks;
     private final NibbleArray blockLight;
     private NibbleArray skyLight;
@@ -28,7 +38,7 @@ public class ChunkSection {
     public ChunkSection() {
         this.blocks = new int[SIZE];
         this.blockLight = new NibbleArray(SIZE);
-        palette.add(0); // AIR
+        addToPalette(0); // AIR
     }
 
     /**
@@ -53,13 +63,66 @@ public class ChunkSection {
      */
     public void setBlock(int idx, int type, int data) {
         int hash = type << 4 | (data & 0xF);
-        int index = palette.indexOf(hash);
-        if (index == -1) {
-            index = palette.size();
-            palette.add(hash);
+        if (hash != lastHash) {
+            lastHash = hash;
+            lastIndex = paletteIndex(hash);
         }
+        blocks[idx] = lastIndex;
+    }
+
+    /**
+     * Clear the palette so this section can be reused, all the blocks have to be set again after this.
+     */
+    public void clearPalette() {
+        paletteSize = 0;
+        Arrays.fill(paletteLookup, 0);
+        lastHash = 0;
+        lastIndex = addToPalette(0); // AIR
+    }
+
+    private int paletteIndex(int hash) {
+        int mask = paletteLookup.length - 1;
+        int slot = mix(hash) & mask;
+        int entry;
+        while ((entry = paletteLookup[slot]) != 0) {
+            if (palette[entry - 1] == hash) {
+                return entry - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return addToPalette(hash);
+    }
+
+    private int addToPalette(int hash) {
+        if (paletteSize == palette.length) {
+            palette = Arrays.copyOf(palette, paletteSize * 2);
+        }
+        int index = paletteSize++;
+        palette[index] = hash;
+        // Keep the table at most half full
+        if (paletteSize * 2 > paletteLookup.length) {
+            paletteLookup = new int[paletteLookup.length * 2];
+            for (int i = 0; i < paletteSize; i++) {
+                insertLookup(palette[i], i);
+            }
+        } else {
+            insertLookup(hash, index);
+        }
+        return index;
+    }
+
+    private void insertLookup(int hash, int index) {
+        int mask = paletteLookup.length - 1;
+        int slot = mix(hash) & mask;
+        while (paletteLookup[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        paletteLookup[slot] = index + 1;
+    }
 
-        blocks[idx] = index;
+    private static int mix(int hash) {
+        // Block ids are small and sequential, spread them over the table
+        return hash * 0x9E3779B9 >>> 16;
     }
 
     /**
@@ -94,35 +157,34 @@ public class ChunkSection {
     public void writeBlocks(ByteBuf output) throws Exception {
         // Write bits per block
         int bitsPerBlock = 4;
-        while (palette.size() > 1 << bitsPerBlock) {
+        while (paletteSize > 1 << bitsPerBlock) {
             bitsPerBlock += 1;
         }
-        long maxEntryValue = (1L << bitsPerBlock) - 1;
         output.writeByte(bitsPerBlock);
 
         // Write pallet (or not)
-        Type.VAR_INT.write(output, palette.size());
-        for (int mappedId : palette) {
-            Type.VAR_INT.write(output, mappedId);
+        Type.PRIMITIVE_VAR_INT.writePrimitive(output, paletteSize);
+        for (int i = 0; i < paletteSize; i++) {
+            Type.PRIMITIVE_VAR_INT.writePrimitive(output, palette[i]);
         }
 
         int length = (int) Math.ceil(SIZE * bitsPerBlock / 64.0);
-        Type.VAR_INT.write(output, length);
-        long[] data = new long[length];
-        for (int index = 0; index < blocks.length; index++) {
-            int value = blocks[index];
-            int bitIndex = index * bitsPerBlock;
-            int startIndex = bitIndex / 64;
-            int endIndex = ((index + 1) * bitsPerBlock - 1) / 64;
-            int startBitSubIndex = bitIndex % 64;
-            data[startIndex] = data[startIndex] & ~(maxEntryValue << startBitSubIndex) | ((long) value & maxEntryValue) << startBitSubIndex;
-            if (startIndex != endIndex) {
-                int endBitSubIndex = 64 - startBitSubIndex;
-                data[endIndex] = data[endIndex] >>> endBitSubIndex << endBitSubIndex | ((long) value & maxEntryValue) >> endBitSubIndex;
+        Type.PRIMITIVE_VAR_INT.writePrimitive(output, length);
+        // Fill a long at a time, an entry which doesn't fit continues in the next long
+        long word = 0;
+        int bitOffset = 0;
+        for (int index = 0; index < SIZE; index++) {
+            long value = blocks[index];
+            word |= value << bitOffset;
+            bitOffset += bitsPerBlock;
+            if (bitOffset >= 64) {
+                output.writeLong(word);
+                bitOffset -= 64;
+                word = bitOffset == 0 ? 0 : value >>> (bitsPerBlock - bitOffset);
             }
         }
-        for (long l : data) {
-            Type.LONG.write(output, l);
+        if (bitOffset > 0) {
+            output.writeLong(word);
         }
     }
 
@@ -159,11 +221,11 @@ public class ChunkSection {
      * @return Amount of bytes sent by this section
      */
     public int getExpectedSize() throws Exception {
-        int bitsPerBlock = palette.size() > 255 ? 16 : 8;
+        int bitsPerBlock = paletteSize > 255 ? 16 : 8;
         int bytes = 1; // bits per block
         bytes += paletteBytes(); // palette
         bytes += countBytes(bitsPerBlock == 16 ? SIZE * 2 : SIZE); // block data length
-        bytes += (palette.size() > 255 ? 2 : 1) * SIZE; // block data
+        bytes += (paletteSize > 255 ? 2 : 1) * SIZE; // block data
         bytes += LIGHT_LENGTH; // block light
         bytes += hasSkyLight() ? LIGHT_LENGTH : 0; // sky light
         return bytes;
@@ -171,20 +233,15 @@ public class ChunkSection {
 
     private int paletteBytes() throws Exception {
         // Count bytes used by pallet
-        int bytes = countBytes(palette.size());
-        for (int mappedId : palette) {
-            bytes += countBytes(mappedId);
+        int bytes = countBytes(paletteSize);
+        for (int i = 0; i < paletteSize; i++) {
+            bytes += countBytes(palette[i]);
         }
         return bytes;
     }
 
     private int countBytes(int value) throws Exception {
         // Count amount of bytes that would be sent if the value were sent as a VarInt
-        ByteBuf buf = Unpooled.buffer();
-        Type.VAR_INT.write(buf, value);
-        buf.readerIndex(0);
-        int bitCount = buf.readableBytes();
-        buf.release();
-        return bitCount;
+        return PipelineUtil.varIntLength(value);
     }
 }
@@ -3,17 +3,52 @@ package us.myles.ViaVersion.api.minecraft.item;
 import lombok.*;
 import org.bukkit.inventory.ItemStack;
 import org.spacehq.opennbt.tag.builtin.CompoundTag;
+import us.myles.ViaVersion.api.minecraft.nbt.LazyTag;
 
 @Getter
 @Setter
 @NoArgsConstructor
-@AllArgsConstructor
-@ToString
+@ToString(doNotUseGetters = true)
 public class Item {
     private short id;
     private byte amount;
     private short data;
-    private CompoundTag tag;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private LazyTag tag;
+
+    public Item(short id, byte amount, short data, CompoundTag tag) {
+        this.id = id;
+        this.amount = amount;
+        this.data = data;
+        setTag(tag);
+    }
+
+    /**
+     * Get the tag of this item, a tag read from a packet is parsed the first time this is called
+     *
+     * @return The tag, null if the item has none
+     */
+    public CompoundTag getTag() {
+        return tag == null ? null : tag.getTag();
+    }
+
+    public void setTag(CompoundTag tag) {
+        this.tag = tag == null ? null : new LazyTag(tag);
+    }
+
+    /**
+     * Get the tag of this item without parsing it
+     *
+     * @return The tag, null if the item has none
+     */
+    public LazyTag getLazyTag() {
+        return tag;
+    }
+
+    public void setLazyTag(LazyTag tag) {
+        this.tag = tag;
+    }
 
     /**
      * Create an item from a bukkit stack (doesn't save NBT)
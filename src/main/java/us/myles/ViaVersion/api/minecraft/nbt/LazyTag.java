@@ -0,0 +1,84 @@
+package us.myles.ViaVersion.api.minecraft.nbt;
+
+import io.netty.buffer.ByteBuf;
+import org.spacehq.opennbt.tag.builtin.CompoundTag;
+import us.myles.ViaVersion.api.type.Type;
+
+/**
+ * A compound tag which is only parsed when it's used, until then it's written as the bytes it was read from.
+ * The bytes are a slice of the packet, so they're only valid while the packet is being translated.
+ */
+public class LazyTag {
+    private final ByteBuf data;
+    private CompoundTag tag;
+    private boolean parsed = false;
+
+    public LazyTag(ByteBuf data) {
+        this.data = data;
+    }
+
+    public LazyTag(CompoundTag tag) {
+        this.data = null;
+        this.tag = tag;
+        this.parsed = true;
+    }
+
+    /**
+     * Get the tag, parses it the first time this is called
+     *
+     * @return The tag
+     */
+    public CompoundTag getTag() {
+        if (!parsed) {
+            try {
+                tag = Type.NBT.read(data.duplicate());
+            } catch (Exception e) {
+                throw new IllegalArgumentException("Failed to read NBT", e);
+            }
+            parsed = true;
+        }
+        return tag;
+    }
+
+    public void setTag(CompoundTag tag) {
+        this.tag = tag;
+        this.parsed = true;
+    }
+
+    /**
+     * Check if the tag has been parsed, if not it's written as it was read
+     *
+     * @return True if it has been parsed
+     */
+    public boolean isParsed() {
+        return parsed;
+    }
+
+    /**
+     * Get the bytes the tag was read from
+     *
+     * @return The bytes, null if the tag wasn't read from a packet
+     */
+    public ByteBuf getData() {
+        return data;
+    }
+
+    /**
+     * Write the tag, copies the bytes it was read from if it hasn't been parsed
+     *
+     * @param buffer The buffer to write to
+     * @throws Exception If it failed to write the tag
+     */
+    public void write(ByteBuf buffer) throws Exception {
+        if (parsed) {
+            Type.NBT.write(buffer, tag);
+        } else {
+            buffer.writeBytes(data, data.readerIndex(), data.readableBytes());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return parsed ? String.valueOf(tag) : "LazyTag{" + data.readableBytes() + " bytes}";
+    }
+}
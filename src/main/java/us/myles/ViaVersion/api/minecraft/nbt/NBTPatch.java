@@ -0,0 +1,407 @@
+package us.myles.ViaVersion.api.minecraft.nbt;
+
+import com.google.common.base.Preconditions;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.spacehq.opennbt.tag.builtin.CompoundTag;
+import us.myles.ViaVersion.api.type.Type;
+import us.myles.ViaVersion.api.type.types.minecraft.LazyNBTType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Changes a few keys of a compound tag by copying its bytes, without parsing it into a tree.
+ * Keys which aren't patched are copied as they are, keys which are patched but missing are added at the end.
+ * A patch only holds what to change, so it can be built once and applied to many tags.
+ */
+public class NBTPatch {
+    // Tag ids
+    private static final int TAG_END = 0;
+    private static final int TAG_STRING = 8;
+    private static final int TAG_LIST = 9;
+    private static final int TAG_COMPOUND = 10;
+
+    private final List<String> names = new ArrayList<>();
+    private final List<byte[]> encodedNames = new ArrayList<>();
+    private final List<Operation> operations = new ArrayList<>();
+
+    /**
+     * Set a string, replaces the key if it's already there
+     *
+     * @param name  The key
+     * @param value The string
+     * @return This patch
+     */
+    public NBTPatch putString(String name, String value) {
+        ByteBuf payload = Unpooled.buffer();
+        writeUTF(payload, value);
+        return add(name, new Put(TAG_STRING, payload));
+    }
+
+    /**
+     * Set a compound, replaces the key if it's already there
+     *
+     * @param name     The key
+     * @param compound The keys of the compound, as a patch applied to an empty compound
+     * @return This patch
+     */
+    public NBTPatch putCompound(String name, NBTPatch compound) {
+        ByteBuf payload = Unpooled.buffer();
+        compound.writeMissing(payload, 0);
+        payload.writeByte(TAG_END);
+        return add(name, new Put(TAG_COMPOUND, payload));
+    }
+
+    /**
+     * Remove a key
+     *
+     * @param name The key
+     * @return This patch
+     */
+    public NBTPatch remove(String name) {
+        return add(name, new Remove());
+    }
+
+    /**
+     * Patch a nested compound, it's added if it's missing
+     *
+     * @param name  The key of the compound
+     * @param patch The patch for the compound
+     * @return This patch
+     */
+    public NBTPatch patch(String name, NBTPatch patch) {
+        return add(name, new Nested(patch));
+    }
+
+    /**
+     * Rewrite a string or all strings in a list of strings
+     *
+     * @param name         The key
+     * @param rewriter     The rewriter
+     * @param defaultValue The strings to add as a list if the key is missing, none to not add it
+     * @return This patch
+     */
+    public NBTPatch rewriteStrings(String name, StringRewriter rewriter, String... defaultValue) {
+        ByteBuf payload = null;
+        if (defaultValue.length > 0) {
+            payload = Unpooled.buffer();
+            payload.writeByte(TAG_STRING);
+            payload.writeInt(defaultValue.length);
+            for (String value : defaultValue) {
+                writeUTF(payload, value);
+            }
+        }
+        return add(name, new RewriteStrings(rewriter, payload));
+    }
+
+    /**
+     * Apply this patch to a tag
+     *
+     * @param tag The tag, null to apply it to an empty compound
+     * @return The patched tag, backed by a new buffer
+     * @throws Exception If the tag couldn't be read
+     */
+    public LazyTag apply(LazyTag tag) throws Exception {
+        ByteBuf input = getData(tag);
+        ByteBuf output = Unpooled.buffer(input == null ? 32 : input.readableBytes() + 32);
+        output.writeByte(TAG_COMPOUND);
+        if (input == null) {
+            output.writeShort(0); // Name
+            writeMissing(output, 0);
+            output.writeByte(TAG_END);
+        } else {
+            input = input.duplicate();
+            Preconditions.checkArgument(input.readByte() == TAG_COMPOUND, "Expected a compound tag");
+            int nameLength = input.readUnsignedShort();
+            output.writeShort(nameLength);
+            output.writeBytes(input, nameLength);
+            write(input, output, 0);
+        }
+        return new LazyTag(output);
+    }
+
+    /**
+     * Get a string from a tag without parsing it
+     *
+     * @param tag  The tag, may be null
+     * @param path The keys of the nested compounds followed by the key of the string
+     * @return The string, null if it's missing or isn't a string
+     * @throws Exception If the tag couldn't be read
+     */
+    public static String getString(LazyTag tag, String... path) throws Exception {
+        ByteBuf input = getData(tag);
+        if (input == null) return null;
+        input = input.duplicate();
+        Preconditions.checkArgument(input.readByte() == TAG_COMPOUND, "Expected a compound tag");
+        input.skipBytes(input.readUnsignedShort()); // Name
+
+        for (int i = 0; i < path.length; i++) {
+            byte[] name = encodeUTF(path[i]);
+            int expectedType = i == path.length - 1 ? TAG_STRING : TAG_COMPOUND;
+            int type;
+            boolean found = false;
+            while ((type = input.readByte()) != TAG_END) {
+                int nameLength = input.readUnsignedShort();
+                boolean matches = nameEquals(input, input.readerIndex(), nameLength, name);
+                input.skipBytes(nameLength);
+                if (matches && type == expectedType) {
+                    found = true;
+                    break;
+                }
+                LazyNBTType.skipPayload(input, type, i + 1);
+            }
+            if (!found) return null;
+        }
+        return readUTF(input);
+    }
+
+    private NBTPatch add(String name, Operation operation) {
+        Preconditions.checkArgument(!names.contains(name), "Key %s is already patched", name);
+        Preconditions.checkArgument(names.size() < 64, "Too many keys patched");
+        names.add(name);
+        encodedNames.add(encodeUTF(name));
+        operations.add(operation);
+        return this;
+    }
+
+    /**
+     * Copy the children of a compound while patching them, including the end tag
+     */
+    private void write(ByteBuf input, ByteBuf output, int depth) {
+        long patched = 0;
+        int type;
+        while ((type = input.readByte()) != TAG_END) {
+            int start = input.readerIndex() - 1;
+            int nameLength = input.readUnsignedShort();
+            int operation = find(input, input.readerIndex(), nameLength);
+            input.skipBytes(nameLength);
+            if (operation == -1) {
+                LazyNBTType.skipPayload(input, type, depth + 1);
+                output.writeBytes(input, start, input.readerIndex() - start);
+            } else {
+                patched |= 1L << operation;
+                operations.get(operation).write(input, output, type, encodedNames.get(operation), depth + 1);
+            }
+        }
+        for (int i = 0; i < operations.size(); i++) {
+            if ((patched & (1L << i)) == 0) {
+                operations.get(i).writeMissing(output, encodedNames.get(i), depth + 1);
+            }
+        }
+        output.writeByte(TAG_END);
+    }
+
+    /**
+     * Write the keys this patch adds to an empty compound, without the end tag
+     */
+    private void writeMissing(ByteBuf output, int depth) {
+        for (int i = 0; i < operations.size(); i++) {
+            operations.get(i).writeMissing(output, encodedNames.get(i), depth + 1);
+        }
+    }
+
+    private int find(ByteBuf input, int index, int length) {
+        for (int i = 0; i < encodedNames.size(); i++) {
+            if (nameEquals(input, index, length, encodedNames.get(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean nameEquals(ByteBuf input, int index, int length, byte[] name) {
+        if (length != name.length) return false;
+        for (int i = 0; i < length; i++) {
+            if (input.getByte(index + i) != name[i]) return false;
+        }
+        return true;
+    }
+
+    private static ByteBuf getData(LazyTag tag) throws Exception {
+        if (tag == null) return null;
+        if (!tag.isParsed()) return tag.getData();
+        // Somebody already needed the tree, write it back so it can be patched
+        CompoundTag compound = tag.getTag();
+        if (compound == null) return null;
+        ByteBuf buffer = Unpooled.buffer();
+        Type.NBT.write(buffer, compound);
+        return buffer;
+    }
+
+    private static void writeHeader(ByteBuf output, int type, byte[] name) {
+        output.writeByte(type);
+        output.writeShort(name.length);
+        output.writeBytes(name);
+    }
+
+    /* Strings in NBT are modified UTF-8, like DataOutput#writeUTF */
+
+    private static byte[] encodeUTF(String value) {
+        ByteBuf buffer = Unpooled.buffer(value.length() + 2);
+        writeUTF(buffer, value);
+        byte[] bytes = new byte[buffer.readableBytes() - 2];
+        buffer.getBytes(2, bytes);
+        return bytes;
+    }
+
+    private static void writeUTF(ByteBuf output, String value) {
+        int lengthIndex = output.writerIndex();
+        output.writeShort(0);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x0001 && c <= 0x007F) {
+                output.writeByte(c);
+            } else if (c <= 0x07FF) {
+                output.writeByte(0xC0 | (c >> 6));
+                output.writeByte(0x80 | (c & 0x3F));
+            } else {
+                output.writeByte(0xE0 | (c >> 12));
+                output.writeByte(0x80 | ((c >> 6) & 0x3F));
+                output.writeByte(0x80 | (c & 0x3F));
+            }
+        }
+        int length = output.writerIndex() - lengthIndex - 2;
+        Preconditions.checkArgument(length <= 65535, "String is too long to write as NBT (%s bytes)", length);
+        output.setShort(lengthIndex, length);
+    }
+
+    private static String readUTF(ByteBuf input) {
+        int length = input.readUnsignedShort();
+        int end = input.readerIndex() + length;
+        char[] chars = new char[length];
+        int count = 0;
+        while (input.readerIndex() < end) {
+            int b = input.readUnsignedByte();
+            if (b < 0x80) {
+                chars[count++] = (char) b;
+            } else if ((b & 0xE0) == 0xC0) {
+                chars[count++] = (char) (((b & 0x1F) << 6) | (input.readUnsignedByte() & 0x3F));
+            } else {
+                chars[count++] = (char) (((b & 0x0F) << 12) | ((input.readUnsignedByte() & 0x3F) << 6) | (input.readUnsignedByte() & 0x3F));
+            }
+        }
+        Preconditions.checkArgument(input.readerIndex() == end, "Malformed NBT string");
+        return new String(chars, 0, count);
+    }
+
+    /**
+     * Rewrites the strings for {@link #rewriteStrings(String, StringRewriter, String...)}
+     */
+    public interface StringRewriter {
+        String rewrite(String value);
+    }
+
+    private interface Operation {
+        /**
+         * Write the patched tag, the input is positioned at the payload of the tag and must be moved past it
+         */
+        void write(ByteBuf input, ByteBuf output, int type, byte[] name, int depth);
+
+        /**
+         * Write the tag if it was missing
+         */
+        void writeMissing(ByteBuf output, byte[] name, int depth);
+    }
+
+    private static class Put implements Operation {
+        private final int type;
+        private final ByteBuf payload;
+
+        private Put(int type, ByteBuf payload) {
+            this.type = type;
+            this.payload = payload;
+        }
+
+        @Override
+        public void write(ByteBuf input, ByteBuf output, int type, byte[] name, int depth) {
+            LazyNBTType.skipPayload(input, type, depth);
+            writeMissing(output, name, depth);
+        }
+
+        @Override
+        public void writeMissing(ByteBuf output, byte[] name, int depth) {
+            writeHeader(output, type, name);
+            output.writeBytes(payload, payload.readerIndex(), payload.readableBytes());
+        }
+    }
+
+    private static class Remove implements Operation {
+        @Override
+        public void write(ByteBuf input, ByteBuf output, int type, byte[] name, int depth) {
+            LazyNBTType.skipPayload(input, type, depth);
+        }
+
+        @Override
+        public void writeMissing(ByteBuf output, byte[] name, int depth) {
+        }
+    }
+
+    private static class Nested implements Operation {
+        private final NBTPatch patch;
+
+        private Nested(NBTPatch patch) {
+            this.patch = patch;
+        }
+
+        @Override
+        public void write(ByteBuf input, ByteBuf output, int type, byte[] name, int depth) {
+            if (type != TAG_COMPOUND) {
+                // Replace it, like putting a compound into a tree would
+                LazyNBTType.skipPayload(input, type, depth);
+                writeMissing(output, name, depth);
+                return;
+            }
+            writeHeader(output, TAG_COMPOUND, name);
+            patch.write(input, output, depth);
+        }
+
+        @Override
+        public void writeMissing(ByteBuf output, byte[] name, int depth) {
+            writeHeader(output, TAG_COMPOUND, name);
+            patch.writeMissing(output, depth);
+            output.writeByte(TAG_END);
+        }
+    }
+
+    private static class RewriteStrings implements Operation {
+        private final StringRewriter rewriter;
+        private final ByteBuf defaultPayload;
+
+        private RewriteStrings(StringRewriter rewriter, ByteBuf defaultPayload) {
+            this.rewriter = rewriter;
+            this.defaultPayload = defaultPayload;
+        }
+
+        @Override
+        public void write(ByteBuf input, ByteBuf output, int type, byte[] name, int depth) {
+            if (type == TAG_STRING) {
+                writeHeader(output, TAG_STRING, name);
+                writeUTF(output, rewriter.rewrite(readUTF(input)));
+            } else if (type == TAG_LIST && input.getByte(input.readerIndex()) == TAG_STRING) {
+                writeHeader(output, TAG_LIST, name);
+                output.writeByte(input.readByte());
+                int length = input.readInt();
+                Preconditions.checkArgument(length >= 0 && length <= 2097152, "Invalid NBT length %s", length);
+                output.writeInt(length);
+                for (int i = 0; i < length; i++) {
+                    writeUTF(output, rewriter.rewrite(readUTF(input)));
+                }
+            } else {
+                // Not strings, keep it as it is
+                int start = input.readerIndex();
+                LazyNBTType.skipPayload(input, type, depth);
+                writeHeader(output, type, name);
+                output.writeBytes(input, start, input.readerIndex() - start);
+            }
+        }
+
+        @Override
+        public void writeMissing(ByteBuf output, byte[] name, int depth) {
+            if (defaultPayload != null) {
+                writeHeader(output, TAG_LIST, name);
+                output.writeBytes(defaultPayload, defaultPayload.readerIndex(), defaultPayload.readableBytes());
+            }
+        }
+    }
+}
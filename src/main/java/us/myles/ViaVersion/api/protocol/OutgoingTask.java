@@ -0,0 +1,21 @@
+package us.myles.ViaVersion.api.protocol;
+
+import io.netty.buffer.ByteBuf;
+import us.myles.ViaVersion.api.data.UserConnection;
+
+import java.util.List;
+
+/**
+ * Work a filter needs done in packet order, output by {@link Protocol#filterPacket} in place of a packet.
+ * Packets can still be translating when a packet is filtered, so connection storage used by translations
+ * must only be changed by a task. It runs on the netty thread once every packet written before it is translated.
+ */
+public interface OutgoingTask {
+    /**
+     * Run the task
+     *
+     * @param info The user connection
+     * @return Packets to write in place of the task, already encoded for the client
+     */
+    List<ByteBuf> run(UserConnection info);
+}
@@ -1,22 +1,26 @@
 package us.myles.ViaVersion.api.protocol;
 
+import com.google.common.base.Preconditions;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import us.myles.ViaVersion.api.PacketWrapper;
-import us.myles.ViaVersion.api.Pair;
 import us.myles.ViaVersion.api.data.UserConnection;
 import us.myles.ViaVersion.api.remapper.PacketRemapper;
 import us.myles.ViaVersion.exception.CancelException;
 import us.myles.ViaVersion.packets.Direction;
 import us.myles.ViaVersion.packets.State;
 
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 
 public abstract class Protocol {
-    private Map<Pair<State, Integer>, ProtocolPacket> incoming = new HashMap<>();
-    private Map<Pair<State, Integer>, ProtocolPacket> outgoing = new HashMap<>();
+    /**
+     * Returned by {@link #transformPacketID(Direction, State, int)} when the packet needs its remapper to run.
+     */
+    public static final int REMAP_REQUIRED = Integer.MIN_VALUE;
+    // Dispatch tables, indexed by [State.ordinal()][packet id] (grown as packets are registered)
+    private final ProtocolPacket[][] incoming = new ProtocolPacket[State.values().length][];
+    private final ProtocolPacket[][] outgoing = new ProtocolPacket[State.values().length][];
 
     public Protocol() {
         registerPackets();
@@ -35,6 +39,8 @@ public abstract class Protocol {
 
     /**
      * Filter a packet into the output
+     * This runs when the packet is written, before the packets in front of it are translated,
+     * so changes to connection storage have to be output as an {@link OutgoingTask}.
      *
      * @param info   The current user connection
      * @param packet The input packet as an object (NMS)
@@ -85,7 +91,7 @@ public abstract class Protocol {
      */
     public void registerIncoming(State state, int oldPacketID, int newPacketID, PacketRemapper packetRemapper) {
         ProtocolPacket protocolPacket = new ProtocolPacket(state, oldPacketID, newPacketID, packetRemapper);
-        incoming.put(new Pair<>(state, newPacketID), protocolPacket);
+        register(incoming, state, newPacketID, protocolPacket);
     }
 
     /**
@@ -109,7 +115,7 @@ public abstract class Protocol {
      */
     public void registerOutgoing(State state, int oldPacketID, int newPacketID, PacketRemapper packetRemapper) {
         ProtocolPacket protocolPacket = new ProtocolPacket(state, oldPacketID, newPacketID, packetRemapper);
-        outgoing.put(new Pair<>(state, oldPacketID), protocolPacket);
+        register(outgoing, state, oldPacketID, protocolPacket);
     }
 
     /**
@@ -121,12 +127,8 @@ public abstract class Protocol {
      * @throws Exception Throws exception if it fails to transform
      */
     public void transform(Direction direction, State state, PacketWrapper packetWrapper) throws Exception {
-        Pair<State, Integer> statePacket = new Pair<>(state, packetWrapper.getId());
-        Map<Pair<State, Integer>, ProtocolPacket> packetMap = (direction == Direction.OUTGOING ? outgoing : incoming);
-        ProtocolPacket protocolPacket;
-        if (packetMap.containsKey(statePacket)) {
-            protocolPacket = packetMap.get(statePacket);
-        } else {
+        ProtocolPacket protocolPacket = lookup(direction == Direction.OUTGOING ? outgoing : incoming, state, packetWrapper.getId());
+        if (protocolPacket == null) {
             return;
         }
         // write packet id
@@ -140,6 +142,75 @@ public abstract class Protocol {
         }
     }
 
+    /**
+     * Check if an outgoing packet may be translated off the netty thread.
+     * Only return true for packets which only use connection storage that isn't touched by other packets
+     * while it's being translated, the connection's other packets wait until it's done.
+     *
+     * @param state    The current protocol state
+     * @param packetID The packet ID as the server sent it
+     * @return True if it can be translated by a TranslationExecutor
+     */
+    public boolean isAsyncOutgoing(State state, int packetID) {
+        return false;
+    }
+
+    /**
+     * Get the new packet ID if this protocol only changes the ID of a packet.
+     * Registrations without a PacketRemapper are id-only, so the body can be kept as it is.
+     *
+     * @param direction The direction the packet is going in
+     * @param state     The current protocol state
+     * @param packetID  The current packet ID
+     * @return The new packet ID (the same if not registered), or REMAP_REQUIRED if the packet has a remapper
+     */
+    public int transformPacketID(Direction direction, State state, int packetID) {
+        ProtocolPacket protocolPacket = lookup(direction == Direction.OUTGOING ? outgoing : incoming, state, packetID);
+        if (protocolPacket == null) {
+            return packetID;
+        }
+        if (protocolPacket.getRemapper() != null) {
+            return REMAP_REQUIRED;
+        }
+        return direction == Direction.OUTGOING ? protocolPacket.getNewID() : protocolPacket.getOldID();
+    }
+
+    /**
+     * Put a packet into a dispatch table, growing the row for the state if needed.
+     *
+     * @param table    The dispatch table to register into
+     * @param state    The state which the packet is sent in.
+     * @param packetID The packet ID used as the lookup key
+     * @param packet   The packet to register
+     */
+    private static void register(ProtocolPacket[][] table, State state, int packetID, ProtocolPacket packet) {
+        Preconditions.checkArgument(packetID >= 0, "Packet ID can't be negative: %s", packetID);
+        ProtocolPacket[] packets = table[state.ordinal()];
+        if (packets == null) {
+            packets = new ProtocolPacket[packetID + 1];
+        } else if (packetID >= packets.length) {
+            packets = Arrays.copyOf(packets, packetID + 1);
+        }
+        packets[packetID] = packet;
+        table[state.ordinal()] = packets;
+    }
+
+    /**
+     * Find a packet in a dispatch table, this does not allocate.
+     *
+     * @param table    The dispatch table to look in
+     * @param state    The state which the packet is sent in.
+     * @param packetID The packet ID used as the lookup key
+     * @return The registered packet or null if there is none
+     */
+    private static ProtocolPacket lookup(ProtocolPacket[][] table, State state, int packetID) {
+        ProtocolPacket[] packets = table[state.ordinal()];
+        if (packets == null || packetID < 0 || packetID >= packets.length) {
+            return null;
+        }
+        return packets[packetID];
+    }
+
     @Override
     public String toString() {
         return "Protocol:" + getClass().getSimpleName();
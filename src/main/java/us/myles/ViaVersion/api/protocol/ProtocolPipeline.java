@@ -12,6 +12,7 @@ import us.myles.ViaVersion.protocols.base.ProtocolInfo;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.logging.Level;
@@ -127,6 +128,44 @@ public class ProtocolPipeline extends Protocol {
         }
     }
 
+    /**
+     * Get the new packet ID if every protocol in the pipeline only changes the ID of the packet.
+     * When this doesn't return REMAP_REQUIRED the packet doesn't need a PacketWrapper at all.
+     *
+     * @param direction The direction the packet is going in
+     * @param state     The current protocol state
+     * @param packetID  The current packet ID
+     * @return The new packet ID, or REMAP_REQUIRED if a protocol has to remap the packet
+     */
+    @Override
+    public int transformPacketID(Direction direction, State state, int packetID) {
+        // Debug mode logs each packet in transform
+        if (ViaVersion.getInstance().isDebug()) {
+            return REMAP_REQUIRED;
+        }
+        Iterator<Protocol> iterator = direction == Direction.OUTGOING ? protocolList.descendingIterator() : protocolList.iterator();
+        while (iterator.hasNext()) {
+            packetID = iterator.next().transformPacketID(direction, state, packetID);
+            if (packetID == REMAP_REQUIRED) {
+                return REMAP_REQUIRED;
+            }
+        }
+        return packetID;
+    }
+
+    /**
+     * Check if an outgoing packet may be translated off the netty thread.
+     * The first protocol to handle the packet decides, the rest of the pipeline runs on the same thread.
+     *
+     * @param state    The current protocol state
+     * @param packetID The packet ID as the server sent it
+     * @return True if it can be translated by a TranslationExecutor
+     */
+    @Override
+    public boolean isAsyncOutgoing(State state, int packetID) {
+        return protocolList.getLast().isAsyncOutgoing(state, packetID);
+    }
+
     /**
      * Check if the pipeline contains a protocol
      *
@@ -2,6 +2,7 @@ package us.myles.ViaVersion.api.remapper;
 
 import us.myles.ViaVersion.api.PacketWrapper;
 import us.myles.ViaVersion.api.Pair;
+import us.myles.ViaVersion.api.type.PrimitiveType;
 import us.myles.ViaVersion.api.type.Type;
 import us.myles.ViaVersion.exception.InformativeException;
 
@@ -21,6 +22,17 @@ public abstract class PacketRemapper {
      * @param type Type to map
      */
     public void map(Type type) {
+        if (type instanceof PrimitiveType) {
+            // Pass primitives through without boxing them
+            final PrimitiveType primitiveType = (PrimitiveType) type;
+            handler(new PacketHandler() {
+                @Override
+                public void handle(PacketWrapper wrapper) throws Exception {
+                    wrapper.passthroughPrimitive(primitiveType);
+                }
+            });
+            return;
+        }
         TypeRemapper remapper = new TypeRemapper(type);
         map(remapper, remapper);
     }
@@ -0,0 +1,52 @@
+package us.myles.ViaVersion.api.type;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * A type which holds a primitive, this allows PacketWrapper to keep the value without boxing it.
+ * Values are passed around as bits, the primitive widened to a long (float / double use their raw bits).
+ *
+ * @param <T> The boxed class of the primitive
+ */
+public abstract class PrimitiveType<T> extends Type<T> {
+
+    public PrimitiveType(Class<? super T> outputClass) {
+        super(outputClass);
+    }
+
+    public PrimitiveType(String typeName, Class<? super T> outputClass) {
+        super(typeName, outputClass);
+    }
+
+    /**
+     * Read a value as bits from a ByteBuf
+     *
+     * @param buffer The buffer to read from.
+     * @return The value as bits
+     */
+    public abstract long readBits(ByteBuf buffer);
+
+    /**
+     * Write a value from bits to a ByteBuf
+     *
+     * @param buffer The buffer to write to
+     * @param bits   The value as bits
+     */
+    public abstract void writeBits(ByteBuf buffer, long bits);
+
+    /**
+     * Box a value from bits
+     *
+     * @param bits The value as bits
+     * @return The boxed value
+     */
+    public abstract T box(long bits);
+
+    /**
+     * Convert a boxed value to bits
+     *
+     * @param value The boxed value (or any value which can be converted to this type)
+     * @return The value as bits
+     */
+    public abstract long unbox(Object value);
+}
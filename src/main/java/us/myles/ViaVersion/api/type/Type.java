@@ -7,6 +7,7 @@ import org.bukkit.util.Vector;
 import org.spacehq.opennbt.tag.builtin.CompoundTag;
 import us.myles.ViaVersion.api.minecraft.Position;
 import us.myles.ViaVersion.api.minecraft.item.Item;
+import us.myles.ViaVersion.api.minecraft.nbt.LazyTag;
 import us.myles.ViaVersion.api.type.types.*;
 import us.myles.ViaVersion.api.type.types.minecraft.*;
 
@@ -52,6 +53,11 @@ public abstract class Type<T> implements ByteBufReader<T>, ByteBufWriter<T> {
     /* Variable Types */
     public static final Type<Integer> VAR_INT = new VarIntType();
     public static final Type<Integer[]> VAR_INT_ARRAY = new ArrayType<>(Type.VAR_INT);
+    /**
+     * VAR_INT as its own class, to read and write it without boxing.
+     * It's a separate field so VAR_INT keeps the declared type plugins are compiled against.
+     */
+    public static final VarIntType PRIMITIVE_VAR_INT = (VarIntType) VAR_INT;
     /* Special Types */
     public static final Type<Void> NOTHING = new VoidType(); // This is purely used for remapping.
     /* MC Types */
@@ -59,6 +65,7 @@ public abstract class Type<T> implements ByteBufReader<T>, ByteBufWriter<T> {
     public static final Type<EulerAngle> ROTATION = new EulerAngleType();
     public static final Type<Vector> VECTOR = new VectorType();
     public static final Type<CompoundTag> NBT = new NBTType();
+    public static final Type<LazyTag> LAZY_NBT = new LazyNBTType();
 
     public static final Type<UUID> OPTIONAL_UUID = new OptUUIDType();
 
@@ -1,24 +1,51 @@
 package us.myles.ViaVersion.api.type.types;
 
 import io.netty.buffer.ByteBuf;
-import us.myles.ViaVersion.api.type.Type;
+import us.myles.ViaVersion.api.type.PrimitiveType;
 import us.myles.ViaVersion.api.type.TypeConverter;
 
-public class ByteType extends Type<Byte> implements TypeConverter<Byte> {
+public class ByteType extends PrimitiveType<Byte> implements TypeConverter<Byte> {
     public ByteType() {
         super(Byte.class);
     }
 
+    public byte readPrimitive(ByteBuf buffer) {
+        return buffer.readByte();
+    }
+
+    public void writePrimitive(ByteBuf buffer, byte object) {
+        buffer.writeByte(object);
+    }
+
     @Override
     public Byte read(ByteBuf buffer) {
-        return buffer.readByte();
+        return readPrimitive(buffer);
     }
 
     @Override
     public void write(ByteBuf buffer, Byte object) {
-        buffer.writeByte(object);
+        writePrimitive(buffer, object);
     }
 
+    @Override
+    public long readBits(ByteBuf buffer) {
+        return readPrimitive(buffer);
+    }
+
+    @Override
+    public void writeBits(ByteBuf buffer, long bits) {
+        writePrimitive(buffer, (byte) bits);
+    }
+
+    @Override
+    public Byte box(long bits) {
+        return (byte) bits;
+    }
+
+    @Override
+    public long unbox(Object value) {
+        return from(value);
+    }
 
     @Override
     public Byte from(Object o) {
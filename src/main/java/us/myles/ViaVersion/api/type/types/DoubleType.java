@@ -1,22 +1,50 @@
 package us.myles.ViaVersion.api.type.types;
 
 import io.netty.buffer.ByteBuf;
-import us.myles.ViaVersion.api.type.Type;
+import us.myles.ViaVersion.api.type.PrimitiveType;
 import us.myles.ViaVersion.api.type.TypeConverter;
 
-public class DoubleType extends Type<Double> implements TypeConverter<Double> {
+public class DoubleType extends PrimitiveType<Double> implements TypeConverter<Double> {
     public DoubleType() {
         super(Double.class);
     }
 
+    public double readPrimitive(ByteBuf buffer) {
+        return buffer.readDouble();
+    }
+
+    public void writePrimitive(ByteBuf buffer, double object) {
+        buffer.writeDouble(object);
+    }
+
     @Override
     public Double read(ByteBuf buffer) {
-        return buffer.readDouble();
+        return readPrimitive(buffer);
     }
 
     @Override
     public void write(ByteBuf buffer, Double object) {
-        buffer.writeDouble(object);
+        writePrimitive(buffer, object);
+    }
+
+    @Override
+    public long readBits(ByteBuf buffer) {
+        return Double.doubleToRawLongBits(readPrimitive(buffer));
+    }
+
+    @Override
+    public void writeBits(ByteBuf buffer, long bits) {
+        writePrimitive(buffer, Double.longBitsToDouble(bits));
+    }
+
+    @Override
+    public Double box(long bits) {
+        return Double.longBitsToDouble(bits);
+    }
+
+    @Override
+    public long unbox(Object value) {
+        return Double.doubleToRawLongBits(from(value));
     }
 
     @Override
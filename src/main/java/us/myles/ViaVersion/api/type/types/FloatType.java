@@ -1,24 +1,51 @@
 package us.myles.ViaVersion.api.type.types;
 
 import io.netty.buffer.ByteBuf;
-import us.myles.ViaVersion.api.type.Type;
+import us.myles.ViaVersion.api.type.PrimitiveType;
 import us.myles.ViaVersion.api.type.TypeConverter;
 
-public class FloatType extends Type<Float> implements TypeConverter<Float> {
+public class FloatType extends PrimitiveType<Float> implements TypeConverter<Float> {
     public FloatType() {
         super(Float.class);
     }
 
+    public float readPrimitive(ByteBuf buffer) {
+        return buffer.readFloat();
+    }
+
+    public void writePrimitive(ByteBuf buffer, float object) {
+        buffer.writeFloat(object);
+    }
+
     @Override
     public Float read(ByteBuf buffer) {
-        return buffer.readFloat();
+        return readPrimitive(buffer);
     }
 
     @Override
     public void write(ByteBuf buffer, Float object) {
-        buffer.writeFloat(object);
+        writePrimitive(buffer, object);
     }
 
+    @Override
+    public long readBits(ByteBuf buffer) {
+        return Float.floatToRawIntBits(readPrimitive(buffer));
+    }
+
+    @Override
+    public void writeBits(ByteBuf buffer, long bits) {
+        writePrimitive(buffer, Float.intBitsToFloat((int) bits));
+    }
+
+    @Override
+    public Float box(long bits) {
+        return Float.intBitsToFloat((int) bits);
+    }
+
+    @Override
+    public long unbox(Object value) {
+        return Float.floatToRawIntBits(from(value));
+    }
 
     @Override
     public Float from(Object o) {
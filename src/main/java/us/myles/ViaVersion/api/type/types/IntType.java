@@ -1,22 +1,50 @@
 package us.myles.ViaVersion.api.type.types;
 
 import io.netty.buffer.ByteBuf;
-import us.myles.ViaVersion.api.type.Type;
+import us.myles.ViaVersion.api.type.PrimitiveType;
 import us.myles.ViaVersion.api.type.TypeConverter;
 
-public class IntType extends Type<Integer> implements TypeConverter<Integer> {
+public class IntType extends PrimitiveType<Integer> implements TypeConverter<Integer> {
     public IntType() {
         super(Integer.class);
     }
 
+    public int readPrimitive(ByteBuf buffer) {
+        return buffer.readInt();
+    }
+
+    public void writePrimitive(ByteBuf buffer, int object) {
+        buffer.writeInt(object);
+    }
+
     @Override
     public Integer read(ByteBuf buffer) {
-        return buffer.readInt();
+        return readPrimitive(buffer);
     }
 
     @Override
     public void write(ByteBuf buffer, Integer object) {
-        buffer.writeInt(object);
+        writePrimitive(buffer, object);
+    }
+
+    @Override
+    public long readBits(ByteBuf buffer) {
+        return readPrimitive(buffer);
+    }
+
+    @Override
+    public void writeBits(ByteBuf buffer, long bits) {
+        writePrimitive(buffer, (int) bits);
+    }
+
+    @Override
+    public Integer box(long bits) {
+        return (int) bits;
+    }
+
+    @Override
+    public long unbox(Object value) {
+        return from(value);
     }
 
     @Override
@@ -1,22 +1,50 @@
 package us.myles.ViaVersion.api.type.types;
 
 import io.netty.buffer.ByteBuf;
-import us.myles.ViaVersion.api.type.Type;
+import us.myles.ViaVersion.api.type.PrimitiveType;
 import us.myles.ViaVersion.api.type.TypeConverter;
 
-public class ShortType extends Type<Short> implements TypeConverter<Short> {
+public class ShortType extends PrimitiveType<Short> implements TypeConverter<Short> {
     public ShortType() {
         super(Short.class);
     }
 
+    public short readPrimitive(ByteBuf buffer) {
+        return buffer.readShort();
+    }
+
+    public void writePrimitive(ByteBuf buffer, short object) {
+        buffer.writeShort(object);
+    }
+
     @Override
     public Short read(ByteBuf buffer) {
-        return buffer.readShort();
+        return readPrimitive(buffer);
     }
 
     @Override
     public void write(ByteBuf buffer, Short object) {
-        buffer.writeShort(object);
+        writePrimitive(buffer, object);
+    }
+
+    @Override
+    public long readBits(ByteBuf buffer) {
+        return readPrimitive(buffer);
+    }
+
+    @Override
+    public void writeBits(ByteBuf buffer, long bits) {
+        writePrimitive(buffer, (short) bits);
+    }
+
+    @Override
+    public Short box(long bits) {
+        return (short) bits;
+    }
+
+    @Override
+    public long unbox(Object value) {
+        return from(value);
     }
 
     @Override
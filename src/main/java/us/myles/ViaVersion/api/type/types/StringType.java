@@ -12,7 +12,7 @@ public class StringType extends Type<String> {
 
     @Override
     public String read(ByteBuf buffer) throws Exception {
-        int len = Type.VAR_INT.read(buffer);
+        int len = Type.PRIMITIVE_VAR_INT.readPrimitive(buffer);
         Preconditions.checkArgument(len <= Short.MAX_VALUE, "Cannot receive string longer than Short.MAX_VALUE (got %s characters)", len);
 
         byte[] b = new byte[len];
@@ -26,7 +26,7 @@ public class StringType extends Type<String> {
         Preconditions.checkArgument(object.length() <= Short.MAX_VALUE, "Cannot send string longer than Short.MAX_VALUE (got %s characters)", object.length());
 
         byte[] b = object.getBytes(Charsets.UTF_8);
-        Type.VAR_INT.write(buffer, b.length);
+        Type.PRIMITIVE_VAR_INT.writePrimitive(buffer, b.length);
         buffer.writeBytes(b);
     }
 }
@@ -1,17 +1,16 @@
 package us.myles.ViaVersion.api.type.types;
 
 import io.netty.buffer.ByteBuf;
-import us.myles.ViaVersion.api.type.Type;
+import us.myles.ViaVersion.api.type.PrimitiveType;
 import us.myles.ViaVersion.api.type.TypeConverter;
 
-public class VarIntType extends Type<Integer> implements TypeConverter<Integer> {
+public class VarIntType extends PrimitiveType<Integer> implements TypeConverter<Integer> {
 
     public VarIntType() {
         super("VarInt", Integer.class);
     }
 
-    @Override
-    public void write(ByteBuf buffer, Integer object) {
+    public void writePrimitive(ByteBuf buffer, int object) {
         int part;
         while (true) {
             part = object & 0x7F;
@@ -29,8 +28,7 @@ public class VarIntType extends Type<Integer> implements TypeConverter<Integer>
         }
     }
 
-    @Override
-    public Integer read(ByteBuf buffer) {
+    public int readPrimitive(ByteBuf buffer) {
         int out = 0;
         int bytes = 0;
         byte in;
@@ -51,6 +49,35 @@ public class VarIntType extends Type<Integer> implements TypeConverter<Integer>
         return out;
     }
 
+    @Override
+    public void write(ByteBuf buffer, Integer object) {
+        writePrimitive(buffer, object);
+    }
+
+    @Override
+    public Integer read(ByteBuf buffer) {
+        return readPrimitive(buffer);
+    }
+
+    @Override
+    public long readBits(ByteBuf buffer) {
+        return readPrimitive(buffer);
+    }
+
+    @Override
+    public void writeBits(ByteBuf buffer, long bits) {
+        writePrimitive(buffer, (int) bits);
+    }
+
+    @Override
+    public Integer box(long bits) {
+        return (int) bits;
+    }
+
+    @Override
+    public long unbox(Object value) {
+        return from(value);
+    }
 
     @Override
     public Integer from(Object o) {
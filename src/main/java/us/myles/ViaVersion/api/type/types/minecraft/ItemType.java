@@ -19,7 +19,7 @@ public class ItemType extends Type<Item> {
             item.setId(id);
             item.setAmount(buffer.readByte());
             item.setData(buffer.readShort());
-            item.setTag(Type.NBT.read(buffer));
+            item.setLazyTag(Type.LAZY_NBT.read(buffer));
             return item;
         }
     }
@@ -32,7 +32,7 @@ public class ItemType extends Type<Item> {
             buffer.writeShort(object.getId());
             buffer.writeByte(object.getAmount());
             buffer.writeShort(object.getData());
-            Type.NBT.write(buffer, object.getTag());
+            Type.LAZY_NBT.write(buffer, object.getLazyTag());
         }
     }
 }
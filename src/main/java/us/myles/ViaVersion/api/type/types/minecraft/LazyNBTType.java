@@ -0,0 +1,104 @@
+package us.myles.ViaVersion.api.type.types.minecraft;
+
+import com.google.common.base.Preconditions;
+import io.netty.buffer.ByteBuf;
+import us.myles.ViaVersion.api.minecraft.nbt.LazyTag;
+import us.myles.ViaVersion.api.type.Type;
+
+/**
+ * Reads NBT like {@link NBTType}, but only checks where the tag ends instead of parsing it.
+ */
+public class LazyNBTType extends Type<LazyTag> {
+    /**
+     * Deepest nesting of compounds and lists, same as minecraft.
+     */
+    private static final int MAX_DEPTH = 512;
+    // Tag ids
+    private static final int TAG_END = 0;
+    private static final int TAG_COMPOUND = 10;
+
+    public LazyNBTType() {
+        super("Lazy NBT", LazyTag.class);
+    }
+
+    @Override
+    public LazyTag read(ByteBuf buffer) throws Exception {
+        Preconditions.checkArgument(buffer.readableBytes() <= 2097152, "Cannot read NBT (got %s bytes)", buffer.readableBytes());
+
+        int readerIndex = buffer.readerIndex();
+        byte type = buffer.readByte();
+        if (type == TAG_END) {
+            return null;
+        }
+        Preconditions.checkArgument(type == TAG_COMPOUND, "Expected a compound tag, got %s", type);
+        buffer.skipBytes(buffer.readUnsignedShort()); // Name
+        skipPayload(buffer, type, 0);
+        return new LazyTag(buffer.slice(readerIndex, buffer.readerIndex() - readerIndex));
+    }
+
+    @Override
+    public void write(ByteBuf buffer, LazyTag object) throws Exception {
+        if (object == null) {
+            buffer.writeByte(TAG_END);
+        } else {
+            object.write(buffer);
+        }
+    }
+
+    /**
+     * Skip the payload of a tag
+     *
+     * @param buffer The buffer, positioned after the name of the tag
+     * @param type   The tag type
+     * @param depth  The depth of the tag, 0 for the root
+     */
+    public static void skipPayload(ByteBuf buffer, int type, int depth) {
+        Preconditions.checkArgument(depth <= MAX_DEPTH, "NBT is nested too deep");
+        switch (type) {
+            case 1: // Byte
+                buffer.skipBytes(1);
+                break;
+            case 2: // Short
+                buffer.skipBytes(2);
+                break;
+            case 3: // Int
+            case 5: // Float
+                buffer.skipBytes(4);
+                break;
+            case 4: // Long
+            case 6: // Double
+                buffer.skipBytes(8);
+                break;
+            case 7: // Byte Array
+                buffer.skipBytes(checkLength(buffer.readInt()));
+                break;
+            case 8: // String
+                buffer.skipBytes(buffer.readUnsignedShort());
+                break;
+            case 9: // List
+                int elementType = buffer.readByte();
+                int length = checkLength(buffer.readInt());
+                for (int i = 0; i < length; i++) {
+                    skipPayload(buffer, elementType, depth + 1);
+                }
+                break;
+            case 10: // Compound
+                int childType;
+                while ((childType = buffer.readByte()) != TAG_END) {
+                    buffer.skipBytes(buffer.readUnsignedShort()); // Name
+                    skipPayload(buffer, childType, depth + 1);
+                }
+                break;
+            case 11: // Int Array
+                buffer.skipBytes(checkLength(buffer.readInt()) * 4);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown NBT tag type " + type);
+        }
+    }
+
+    private static int checkLength(int length) {
+        Preconditions.checkArgument(length >= 0 && length <= 2097152, "Invalid NBT length %s", length);
+        return length;
+    }
+}
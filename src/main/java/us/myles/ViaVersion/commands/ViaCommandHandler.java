@@ -131,6 +131,7 @@ public class ViaCommandHandler implements ViaVersionCommand, CommandExecutor, Ta
     private void registerDefaults() throws Exception {
         registerSubCommand(new ListSubCmd());
         registerSubCommand(new DebugSubCmd());
+        registerSubCommand(new StatsSubCmd());
         registerSubCommand(new DisplayLeaksSubCmd());
         registerSubCommand(new DontBugMeSubCmd());
         registerSubCommand(new AutoTeamSubCmd());
@@ -0,0 +1,174 @@
+package us.myles.ViaVersion.commands.defaultsubs;
+
+import com.google.common.cache.CacheStats;
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import us.myles.ViaVersion.ViaVersionPlugin;
+import us.myles.ViaVersion.api.ViaVersion;
+import us.myles.ViaVersion.api.command.ViaSubCommand;
+import us.myles.ViaVersion.api.data.PacketMetrics;
+import us.myles.ViaVersion.api.data.PacketStats;
+import us.myles.ViaVersion.api.data.UserConnection;
+import us.myles.ViaVersion.handlers.TranslationExecutor;
+import us.myles.ViaVersion.protocols.protocol1_9to1_8.ItemCache;
+import us.myles.ViaVersion.protocols.protocol1_9to1_8.chunks.ChunkCache;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.text.SimpleDateFormat;
+import java.util.*;
+
+public class StatsSubCmd extends ViaSubCommand {
+    private static final int TOP_PACKETS = 8;
+
+    @Override
+    public String name() {
+        return "stats";
+    }
+
+    @Override
+    public String description() {
+        return "Shows packet translation statistics";
+    }
+
+    @Override
+    public String usage() {
+        return "stats [player|export]";
+    }
+
+    @Override
+    public boolean execute(CommandSender sender, String[] args) {
+        ViaVersionPlugin plugin = (ViaVersionPlugin) ViaVersion.getInstance();
+        if (args.length == 0) {
+            sendMessage(sender, "&6Packet statistics of all connections:");
+            show(sender, plugin.getGlobalMetrics());
+            TranslationExecutor executor = plugin.getTranslationExecutor();
+            if (executor != null) {
+                sendMessage(sender, "&6Chunk translation threads, queued: &b%d&6, translated: &b%d&6, avg: &b%s&6, on netty thread (queue full): &b%d",
+                        executor.getQueueDepth(), executor.getTasks(), millis(executor.getTasks() == 0 ? 0 : executor.getWorkerNanos() / executor.getTasks()),
+                        executor.getCallerRuns());
+            }
+            ChunkCache cache = plugin.getChunkCache();
+            if (cache != null) {
+                CacheStats cacheStats = cache.getStats();
+                sendMessage(sender, "&6Chunk cache, hit rate: &b%.1f%% &8(&b%d &6hits, &b%d &6misses&8)&6, evictions: &b%d&6, size: &b%s &6of &b%s",
+                        cacheStats.hitRate() * 100D, cacheStats.hitCount(), cacheStats.missCount(), cacheStats.evictionCount(), bytes(cache.getBytes()), bytes(cache.getMaxBytes()));
+            }
+            ItemCache itemCache = plugin.getItemCache();
+            if (itemCache != null) {
+                CacheStats cacheStats = itemCache.getStats();
+                sendMessage(sender, "&6Item cache, hit rate: &b%.1f%% &8(&b%d &6hits, &b%d &6misses&8)&6, evictions: &b%d&6, size: &b%s &6of &b%s",
+                        cacheStats.hitRate() * 100D, cacheStats.hitCount(), cacheStats.missCount(), cacheStats.evictionCount(), bytes(itemCache.getBytes()), bytes(itemCache.getMaxBytes()));
+            }
+            return true;
+        }
+        if (args.length != 1) return false;
+
+        if (args[0].equalsIgnoreCase("export")) {
+            File file = new File(plugin.getDataFolder(), "stats-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".csv");
+            try {
+                export(plugin.getGlobalMetrics(), file);
+                sendMessage(sender, "&6Packet statistics have been written to &b%s", file.getPath());
+            } catch (IOException e) {
+                sendMessage(sender, "&cFailed to write packet statistics: %s", e.getMessage());
+            }
+            return true;
+        }
+
+        Player player = Bukkit.getPlayer(args[0]);
+        UserConnection connection = player == null ? null : plugin.getConnection(player);
+        if (connection == null) {
+            sendMessage(sender, "&cThis player is not online or not using a different version");
+            return true;
+        }
+        sendMessage(sender, "&6Packet statistics of &b%s &8(&b%d &6sent, &b%d &6received&8)&6:", player.getName(), connection.getSentPackets(), connection.getReceivedPackets());
+        show(sender, connection.getMetrics());
+        return true;
+    }
+
+    @Override
+    public List<String> onTabComplete(CommandSender sender, String[] args) {
+        List<String> output = new ArrayList<>();
+        if (args.length == 1) {
+            if ("export".startsWith(args[0].toLowerCase()))
+                output.add("export");
+            for (Player player : Bukkit.getOnlinePlayers()) {
+                if (player.getName().toLowerCase().startsWith(args[0].toLowerCase()))
+                    output.add(player.getName());
+            }
+        }
+        return output;
+    }
+
+    private void show(CommandSender sender, PacketMetrics metrics) {
+        PacketStats total = metrics.getTotal();
+        sendMessage(sender, "&6Packets: &b%d &8(&b%.1f%% &6id only&8)&6, in: &b%s&6, out: &b%s&6, cancelled: &b%d&6, errors: &b%d",
+                total.getPackets(), percentage(total.getIdOnly(), total.getPackets()), bytes(total.getBytesIn()), bytes(total.getBytesOut()),
+                total.getCancelled(), total.getErrors());
+
+        // Show the packets we spend the most time on
+        List<PacketStats> stats = metrics.getStats();
+        Collections.sort(stats, new Comparator<PacketStats>() {
+            @Override
+            public int compare(PacketStats o1, PacketStats o2) {
+                return Long.compare(o2.getTotalNanos(), o1.getTotalNanos());
+            }
+        });
+        for (PacketStats packet : stats.subList(0, Math.min(TOP_PACKETS, stats.size()))) {
+            sendMessage(sender, "&8[&6%s&8]: &b%d &6packets, avg: &b%s&6, p99: &b%s&6, in: &b%s&6, out: &b%s&6, cancelled: &b%d&6, errors: &b%d",
+                    name(packet), packet.getPackets(), millis(packet.getAverageNanos()), millis(packet.getPercentileNanos(0.99)),
+                    bytes(packet.getBytesIn()), bytes(packet.getBytesOut()), packet.getCancelled(), packet.getErrors());
+        }
+    }
+
+    private void export(PacketMetrics metrics, File file) throws IOException {
+        file.getParentFile().mkdirs();
+        try (PrintWriter writer = new PrintWriter(new FileWriter(file))) {
+            StringBuilder header = new StringBuilder("direction,state,packet_id,packets,id_only,bytes_in,bytes_out,cancelled,errors,timed,avg_ns,max_ns");
+            for (int i = 0; i < PacketStats.BUCKETS; i++) {
+                header.append(",lt_").append(1L << i).append("us");
+            }
+            writer.println(header);
+            for (PacketStats packet : metrics.getStats()) {
+                StringBuilder line = new StringBuilder();
+                line.append(packet.getDirection()).append(',')
+                        .append(packet.getState()).append(',')
+                        .append(String.format("0x%02X", packet.getPacketID())).append(',')
+                        .append(packet.getPackets()).append(',')
+                        .append(packet.getIdOnly()).append(',')
+                        .append(packet.getBytesIn()).append(',')
+                        .append(packet.getBytesOut()).append(',')
+                        .append(packet.getCancelled()).append(',')
+                        .append(packet.getErrors()).append(',')
+                        .append(packet.getTimed()).append(',')
+                        .append(packet.getAverageNanos()).append(',')
+                        .append(packet.getMaxNanos());
+                for (long count : packet.getHistogram()) {
+                    line.append(',').append(count);
+                }
+                writer.println(line);
+            }
+        }
+    }
+
+    private static String name(PacketStats packet) {
+        return String.format("%s %s 0x%02X", packet.getDirection(), packet.getState(), packet.getPacketID());
+    }
+
+    private static double percentage(long part, long total) {
+        return total == 0 ? 0D : part * 100D / total;
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.3fms", nanos / 1000000D);
+    }
+
+    private static String bytes(long bytes) {
+        if (bytes < 1024) return bytes + "B";
+        if (bytes < 1024 * 1024) return String.format("%.1fKB", bytes / 1024D);
+        return String.format("%.1fMB", bytes / (1024D * 1024D));
+    }
+}
@@ -0,0 +1,106 @@
+package us.myles.ViaVersion.handlers;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Translates heavy packets (chunks) off the netty threads.
+ * The queue is bounded, when it's full the netty thread translates the packet itself.
+ */
+public class TranslationExecutor {
+    /**
+     * Amount of packets which can wait for a worker.
+     */
+    private static final int QUEUE_SIZE = 1024;
+
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong tasks = new AtomicLong();
+    private final AtomicLong workerNanos = new AtomicLong();
+    private final AtomicLong callerRuns = new AtomicLong();
+
+    public TranslationExecutor(int threads) {
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(QUEUE_SIZE), new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "ViaVersion Translation #" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        }, new RejectedExecutionHandler() {
+            @Override
+            public void rejectedExecution(Runnable runnable, ThreadPoolExecutor executor) {
+                // Full (or shut down), the packet still has to be translated
+                callerRuns.incrementAndGet();
+                runnable.run();
+            }
+        });
+    }
+
+    /**
+     * Run a translation on a worker
+     *
+     * @param task The translation
+     */
+    public void execute(final Runnable task) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                long start = System.nanoTime();
+                try {
+                    task.run();
+                } finally {
+                    workerNanos.addAndGet(System.nanoTime() - start);
+                    tasks.incrementAndGet();
+                }
+            }
+        });
+    }
+
+    /**
+     * Get the amount of packets waiting for a worker
+     *
+     * @return The queue depth
+     */
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Get the amount of translated packets
+     *
+     * @return The amount of tasks
+     */
+    public long getTasks() {
+        return tasks.get();
+    }
+
+    /**
+     * Get the total time spent translating
+     *
+     * @return The time in nanoseconds
+     */
+    public long getWorkerNanos() {
+        return workerNanos.get();
+    }
+
+    /**
+     * Get the amount of packets the netty thread had to translate itself because the queue was full
+     *
+     * @return The amount of packets
+     */
+    public long getCallerRuns() {
+        return callerRuns.get();
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -4,14 +4,15 @@ import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.ByteToMessageDecoder;
 import us.myles.ViaVersion.api.PacketWrapper;
+import us.myles.ViaVersion.api.data.PacketStats;
 import us.myles.ViaVersion.api.data.UserConnection;
+import us.myles.ViaVersion.api.protocol.Protocol;
 import us.myles.ViaVersion.api.type.Type;
 import us.myles.ViaVersion.exception.CancelException;
 import us.myles.ViaVersion.packets.Direction;
 import us.myles.ViaVersion.protocols.base.ProtocolInfo;
 import us.myles.ViaVersion.util.PipelineUtil;
 
-import java.lang.reflect.InvocationTargetException;
 import java.util.List;
 
 public class ViaDecodeHandler extends ByteToMessageDecoder {
@@ -29,44 +30,74 @@ public class ViaDecodeHandler extends ByteToMessageDecoder {
     protected void decode(ChannelHandlerContext ctx, ByteBuf bytebuf, List<Object> list) throws Exception {
         // use transformers
         if (bytebuf.readableBytes() > 0) {
+            // The buffer we allocated for a transformed packet, if any (we only release our own)
+            ByteBuf newPacket = null;
             if (info.isActive()) {
                 // Increment received
                 info.incrementReceived();
+                int bytesIn = bytebuf.readableBytes();
                 // Handle ID
-                int id = Type.VAR_INT.read(bytebuf);
+                int id = Type.PRIMITIVE_VAR_INT.readPrimitive(bytebuf);
                 // Transform
-                ByteBuf newPacket = ctx.alloc().buffer();
-                try {
-                    if (id == ViaDecodeHandler.PASSTHROUGH_ID) {
-                        newPacket.writeBytes(bytebuf);
-                    } else {
-                        PacketWrapper wrapper = new PacketWrapper(id, bytebuf, info);
+                if (id != ViaDecodeHandler.PASSTHROUGH_ID) {
+                    int bodyIndex = bytebuf.readerIndex();
+                    PacketStats stats = null;
+                    try {
                         ProtocolInfo protInfo = info.get(ProtocolInfo.class);
-                        protInfo.getPipeline().transform(Direction.INCOMING, protInfo.getState(), wrapper);
-                        wrapper.writeToBuffer(newPacket);
+                        stats = info.getMetrics().get(Direction.INCOMING, protInfo.getState(), id);
+                        long start = info.getMetrics().shouldSample() ? System.nanoTime() : -1L;
+                        // Id only remaps don't need a wrapper
+                        int newID = protInfo.getPipeline().transformPacketID(Direction.INCOMING, protInfo.getState(), id);
+                        PacketWrapper wrapper = null;
+                        if (newID == Protocol.REMAP_REQUIRED) {
+                            wrapper = new PacketWrapper(id, bytebuf, info);
+                            protInfo.getPipeline().transform(Direction.INCOMING, protInfo.getState(), wrapper);
+                            newID = wrapper.getId();
+                        }
+                        if (wrapper == null || wrapper.isBodyUnchanged()) {
+                            ByteBuf rewritten = PipelineUtil.rewritePacketID(bytebuf, bodyIndex, newID);
+                            if (rewritten != bytebuf) {
+                                newPacket = rewritten;
+                            }
+                            stats.record(bytesIn, rewritten.readableBytes(), wrapper == null);
+                        } else {
+                            newPacket = ctx.alloc().buffer();
+                            wrapper.writeToBuffer(newPacket);
+                            stats.record(bytesIn, newPacket.readableBytes(), false);
+                        }
+                        if (start != -1L) {
+                            stats.recordTime(System.nanoTime() - start);
+                        }
+                    } catch (Exception e) {
+                        if (stats != null) {
+                            if (e instanceof CancelException) {
+                                stats.incrementCancelled();
+                            } else {
+                                stats.incrementErrors();
+                            }
+                        }
+                        // Clear Buffer
+                        bytebuf.clear();
+                        // Release Packet, be free!
+                        if (newPacket != null) {
+                            newPacket.release();
+                        }
+                        throw e;
+                    }
+                    if (newPacket != null) {
+                        bytebuf.clear();
+                        bytebuf = newPacket;
                     }
-
-                    bytebuf.clear();
-                    bytebuf = newPacket;
-                } catch (Exception e) {
-                    // Clear Buffer
-                    bytebuf.clear();
-                    // Release Packet, be free!
-                    newPacket.release();
-                    throw e;
                 }
+                // Pass through packets are already in the right format, the decoder reads them from after our ID
             }
 
             // call minecraft decoder
             try {
-                list.addAll(PipelineUtil.callDecode(this.minecraftDecoder, ctx, bytebuf));
-            } catch (InvocationTargetException e) {
-                if (e.getCause() instanceof Exception) {
-                    throw (Exception) e.getCause();
-                }
+                PipelineUtil.callDecode(this.minecraftDecoder, ctx, bytebuf, list);
             } finally {
-                if (info.isActive()) {
-                    bytebuf.release();
+                if (newPacket != null) {
+                    newPacket.release();
                 }
             }
         }
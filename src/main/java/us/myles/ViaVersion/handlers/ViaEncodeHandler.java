@@ -2,62 +2,264 @@ package us.myles.ViaVersion.handlers;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.EncoderException;
 import io.netty.handler.codec.MessageToByteEncoder;
+import io.netty.util.ReferenceCountUtil;
+import us.myles.ViaVersion.ViaVersionPlugin;
 import us.myles.ViaVersion.api.PacketWrapper;
+import us.myles.ViaVersion.api.ViaVersion;
+import us.myles.ViaVersion.api.data.PacketStats;
 import us.myles.ViaVersion.api.data.UserConnection;
+import us.myles.ViaVersion.api.protocol.OutgoingTask;
+import us.myles.ViaVersion.api.protocol.Protocol;
 import us.myles.ViaVersion.api.type.Type;
 import us.myles.ViaVersion.exception.CancelException;
 import us.myles.ViaVersion.packets.Direction;
+import us.myles.ViaVersion.packets.State;
 import us.myles.ViaVersion.protocols.base.ProtocolInfo;
 import us.myles.ViaVersion.util.PipelineUtil;
 
 import java.lang.reflect.InvocationTargetException;
+import java.nio.channels.ClosedChannelException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
 
 public class ViaEncodeHandler extends MessageToByteEncoder {
     private final UserConnection info;
     private final MessageToByteEncoder minecraftEncoder;
+    // Packets waiting for an async translation in front of them, only used on the netty thread
+    private final Deque<PendingPacket> pending = new ArrayDeque<>();
+    // Measurement of the packets translated on the netty thread
+    private final Translation translation = new Translation();
+    private boolean flushRequested = false;
 
     public ViaEncodeHandler(UserConnection info, MessageToByteEncoder minecraftEncoder) {
         this.info = info;
         this.minecraftEncoder = minecraftEncoder;
     }
 
-
     @Override
-    protected void encode(final ChannelHandlerContext ctx, Object o, final ByteBuf bytebuf) throws Exception {
-        // handle the packet type
-        if (!(o instanceof ByteBuf)) {
-            // call minecraft encoder
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        if (msg instanceof ByteBuf || msg instanceof OutgoingTask || !info.isActive()) {
+            if (pending.isEmpty()) {
+                writeMessage(ctx, msg, promise);
+            } else {
+                // Don't overtake packets which are still being translated
+                pending.add(new PendingPacket(msg, null, false, promise));
+            }
+            return;
+        }
+        // Let minecraft encode into its own buffer, we then either fix the id in place or swap it for the transformed one.
+        ByteBuf bytebuf = ctx.alloc().ioBuffer();
+        try {
             try {
-                PipelineUtil.callEncode(this.minecraftEncoder, ctx, o, bytebuf);
-            } catch (InvocationTargetException e) {
-                if (e.getCause() instanceof Exception) {
-                    throw (Exception) e.getCause();
+                callMinecraftEncoder(ctx, msg, bytebuf);
+            } finally {
+                ReferenceCountUtil.release(msg);
+            }
+            if (bytebuf.readableBytes() == 0) {
+                throw new CancelException();
+            }
+            // Increment sent
+            info.incrementSent();
+            boolean async = isAsync(bytebuf);
+            if (async || !pending.isEmpty()) {
+                pending.add(new PendingPacket(null, bytebuf, async, promise));
+                bytebuf = null;
+                drain(ctx);
+                return;
+            }
+            translation.reset(info.getMetrics().shouldSample());
+            try {
+                bytebuf = transform(ctx, bytebuf, translation);
+            } finally {
+                translation.record(info);
+            }
+            ctx.write(bytebuf, promise);
+            bytebuf = null;
+        } catch (EncoderException e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new EncoderException(t);
+        } finally {
+            if (bytebuf != null) {
+                bytebuf.release();
+            }
+        }
+    }
+
+    private void writeMessage(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        if (msg instanceof ByteBuf) {
+            ctx.write(msg, promise);
+        } else if (msg instanceof OutgoingTask) {
+            // Output by a filter (like the chunk bulks of Protocol1_9TO1_8#filterPacket), the packets are already encoded
+            List<ByteBuf> packets = ((OutgoingTask) msg).run(info);
+            if (packets.isEmpty()) {
+                promise.trySuccess();
+                return;
+            }
+            for (int i = 0; i < packets.size(); i++) {
+                ctx.write(packets.get(i), i == packets.size() - 1 ? promise : ctx.voidPromise());
+            }
+        } else {
+            super.write(ctx, msg, promise);
+        }
+    }
+
+    @Override
+    public void flush(ChannelHandlerContext ctx) throws Exception {
+        if (!pending.isEmpty()) {
+            // Flush the rest once the pending packets are written
+            flushRequested = true;
+        }
+        ctx.flush();
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+        drain(ctx);
+        super.handlerRemoved(ctx);
+    }
+
+    private boolean isAsync(ByteBuf packet) {
+        TranslationExecutor executor = ((ViaVersionPlugin) ViaVersion.getInstance()).getTranslationExecutor();
+        if (executor == null) return false;
+
+        int index = packet.readerIndex();
+        int id = Type.PRIMITIVE_VAR_INT.readPrimitive(packet);
+        packet.readerIndex(index);
+        ProtocolInfo protInfo = info.get(ProtocolInfo.class);
+        return protInfo.getPipeline().isAsyncOutgoing(protInfo.getState(), id);
+    }
+
+    /**
+     * Write the pending packets which are ready, in order.
+     * The first async packet which isn't translated yet is given to the TranslationExecutor, once it's done this is called again.
+     *
+     * @param ctx The current context
+     */
+    private void drain(final ChannelHandlerContext ctx) {
+        while (!pending.isEmpty()) {
+            final PendingPacket packet = pending.peek();
+            if (ctx.isRemoved()) {
+                // The connection is gone, packets which are still being translated are released when they're done
+                if (packet.isAsync() && packet.isSubmitted() && !packet.isDone()) return;
+                pending.poll();
+                packet.discard();
+                continue;
+            }
+            if (packet.isAsync() && !packet.isDone()) {
+                if (!packet.isSubmitted()) {
+                    packet.setSubmitted(true);
+                    ((ViaVersionPlugin) ViaVersion.getInstance()).getTranslationExecutor().execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            packet.translate(ctx);
+                            ctx.executor().execute(new Runnable() {
+                                @Override
+                                public void run() {
+                                    drain(ctx);
+                                }
+                            });
+                        }
+                    });
                 }
+                return;
+            }
+            pending.poll();
+            if (!packet.isAsync()) {
+                packet.translate(ctx);
+            }
+            packet.record();
+            packet.write(ctx);
+        }
+        if (flushRequested) {
+            flushRequested = false;
+            if (!ctx.isRemoved()) {
+                ctx.flush();
             }
         }
+    }
+
+    @Override
+    protected void encode(final ChannelHandlerContext ctx, Object o, final ByteBuf bytebuf) throws Exception {
+        // Only used when we don't transform (see write), so just call minecraft encoder
+        if (!(o instanceof ByteBuf)) {
+            callMinecraftEncoder(ctx, o, bytebuf);
+        }
         if (bytebuf.readableBytes() == 0) {
             throw new CancelException();
         }
-        if (info.isActive()) {
-            // Increment sent
-            info.incrementSent();
-            // Handle ID
-            int id = Type.VAR_INT.read(bytebuf);
-            // Transform
-            ByteBuf oldPacket = bytebuf.copy();
-            bytebuf.clear();
+    }
+
+    /**
+     * Transform an encoded packet through the pipeline
+     * If the body isn't touched by any protocol only the id is rewritten, otherwise the
+     * packet is written to a new buffer and the input buffer is released.
+     * This can run on a TranslationExecutor thread, so it doesn't touch the metrics, the measurement
+     * is recorded on the netty thread once the packet is written.
+     *
+     * @param ctx         The current context
+     * @param packet      The encoded packet
+     * @param translation Where to store the measurement of the translation
+     * @return The buffer holding the transformed packet
+     * @throws Exception If it failed to transform
+     */
+    private ByteBuf transform(ChannelHandlerContext ctx, ByteBuf packet, Translation translation) throws Exception {
+        int bytesIn = packet.readableBytes();
+        // Handle ID
+        int id = Type.PRIMITIVE_VAR_INT.readPrimitive(packet);
+        int bodyIndex = packet.readerIndex();
+        ProtocolInfo protInfo = info.get(ProtocolInfo.class);
+        translation.start(protInfo.getState(), id, bytesIn);
+        // Id only remaps don't need a wrapper
+        int newID = protInfo.getPipeline().transformPacketID(Direction.OUTGOING, protInfo.getState(), id);
+        if (newID != Protocol.REMAP_REQUIRED) {
+            ByteBuf output = swap(packet, PipelineUtil.rewritePacketID(packet, bodyIndex, newID));
+            translation.finish(output, true);
+            return output;
+        }
+        // Transform
+        PacketWrapper wrapper = new PacketWrapper(id, packet, info);
+        try {
+            protInfo.getPipeline().transform(Direction.OUTGOING, protInfo.getState(), wrapper);
+        } catch (CancelException e) {
+            translation.setCancelled(true);
+            throw e;
+        }
 
+        ByteBuf output;
+        if (wrapper.isBodyUnchanged()) {
+            output = PipelineUtil.rewritePacketID(packet, bodyIndex, wrapper.getId());
+        } else {
+            output = ctx.alloc().ioBuffer(packet.readableBytes());
             try {
-                PacketWrapper wrapper = new PacketWrapper(id, oldPacket, info);
-                ProtocolInfo protInfo = info.get(ProtocolInfo.class);
-                protInfo.getPipeline().transform(Direction.OUTGOING, protInfo.getState(), wrapper);
-                wrapper.writeToBuffer(bytebuf);
+                wrapper.writeToBuffer(output);
             } catch (Exception e) {
-                bytebuf.clear();
+                output.release();
                 throw e;
-            } finally {
-                oldPacket.release();
+            }
+        }
+        output = swap(packet, output);
+        translation.finish(output, false);
+        return output;
+    }
+
+    private ByteBuf swap(ByteBuf packet, ByteBuf output) {
+        if (output != packet) {
+            packet.release();
+        }
+        return output;
+    }
+
+    private void callMinecraftEncoder(ChannelHandlerContext ctx, Object o, ByteBuf bytebuf) throws Exception {
+        try {
+            PipelineUtil.callEncode(this.minecraftEncoder, ctx, o, bytebuf);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
             }
         }
     }
@@ -67,4 +269,153 @@ public class ViaEncodeHandler extends MessageToByteEncoder {
         if (PipelineUtil.containsCause(cause, CancelException.class)) return;
         super.exceptionCaught(ctx, cause);
     }
+
+    /**
+     * The measurement of one translation, recorded into the metrics of the connection on the netty thread.
+     * A translation which started but never finished (and wasn't cancelled) is counted as an error.
+     */
+    private static class Translation {
+        private boolean sample;
+        private State state;
+        private int id;
+        private int bytesIn;
+        private int bytesOut;
+        private boolean idOnly;
+        private boolean finished;
+        private boolean cancelled;
+        private long start;
+        private long nanos;
+
+        public void reset(boolean sample) {
+            this.sample = sample;
+            this.state = null;
+            this.finished = false;
+            this.cancelled = false;
+            this.nanos = -1L;
+        }
+
+        public void start(State state, int id, int bytesIn) {
+            this.state = state;
+            this.id = id;
+            this.bytesIn = bytesIn;
+            if (sample) {
+                start = System.nanoTime();
+            }
+        }
+
+        public void finish(ByteBuf output, boolean idOnly) {
+            if (sample) {
+                nanos = System.nanoTime() - start;
+            }
+            this.bytesOut = output.readableBytes();
+            this.idOnly = idOnly;
+            this.finished = true;
+        }
+
+        public void setCancelled(boolean cancelled) {
+            this.cancelled = cancelled;
+        }
+
+        public void record(UserConnection info) {
+            // The id couldn't be read, there's nothing to record it under
+            if (state == null) return;
+            PacketStats stats = info.getMetrics().get(Direction.OUTGOING, state, id);
+            if (finished) {
+                if (nanos != -1L) {
+                    stats.recordTime(nanos);
+                }
+                stats.record(bytesIn, bytesOut, idOnly);
+            } else if (cancelled) {
+                stats.incrementCancelled();
+            } else {
+                stats.incrementErrors();
+            }
+        }
+    }
+
+    /**
+     * A packet waiting to be written, either an untranslated packet or a message which doesn't get translated.
+     */
+    private class PendingPacket {
+        private final Object message;
+        private final boolean async;
+        private final ChannelPromise promise;
+        private ByteBuf packet;
+        private Translation translation;
+        private Throwable error;
+        private boolean submitted = false;
+        private volatile boolean done = false;
+
+        public PendingPacket(Object message, ByteBuf packet, boolean async, ChannelPromise promise) {
+            this.message = message;
+            this.packet = packet;
+            this.async = async;
+            this.promise = promise;
+            this.done = packet == null;
+            if (packet != null) {
+                // Created on the netty thread, so the metrics can be asked whether to time it
+                translation = new Translation();
+                translation.reset(info.getMetrics().shouldSample());
+            }
+        }
+
+        public boolean isAsync() {
+            return async;
+        }
+
+        public boolean isSubmitted() {
+            return submitted;
+        }
+
+        public void setSubmitted(boolean submitted) {
+            this.submitted = submitted;
+        }
+
+        public boolean isDone() {
+            return done;
+        }
+
+        public void translate(ChannelHandlerContext ctx) {
+            try {
+                packet = transform(ctx, packet, translation);
+            } catch (Throwable t) {
+                error = t;
+            } finally {
+                done = true;
+            }
+        }
+
+        /**
+         * Record the translation into the metrics, this has to be called on the netty thread
+         */
+        public void record() {
+            if (translation != null) {
+                translation.record(info);
+            }
+        }
+
+        public void write(ChannelHandlerContext ctx) {
+            if (message != null) {
+                try {
+                    writeMessage(ctx, message, promise);
+                } catch (Throwable t) {
+                    promise.tryFailure(t);
+                }
+            } else if (error != null) {
+                packet.release();
+                promise.tryFailure(error instanceof EncoderException ? error : new EncoderException(error));
+            } else {
+                ctx.write(packet, promise);
+            }
+        }
+
+        public void discard() {
+            if (message != null) {
+                ReferenceCountUtil.release(message);
+            } else {
+                packet.release();
+            }
+            promise.tryFailure(new ClosedChannelException());
+        }
+    }
 }
@@ -1,10 +1,14 @@
 package us.myles.ViaVersion.handlers;
 
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.handler.codec.ByteToMessageDecoder;
 import io.netty.handler.codec.MessageToByteEncoder;
+import us.myles.ViaVersion.ViaVersionPlugin;
+import us.myles.ViaVersion.api.ViaVersion;
 import us.myles.ViaVersion.api.data.UserConnection;
 import us.myles.ViaVersion.api.protocol.ProtocolPipeline;
 
@@ -31,7 +35,7 @@ public class ViaVersionInitializer extends ChannelInitializer<SocketChannel> {
 
     @Override
     protected void initChannel(SocketChannel socketChannel) throws Exception {
-        UserConnection info = new UserConnection(socketChannel);
+        final UserConnection info = new UserConnection(socketChannel);
         // init protocol
         new ProtocolPipeline(info);
         // Add originals
@@ -44,5 +48,12 @@ public class ViaVersionInitializer extends ChannelInitializer<SocketChannel> {
         socketChannel.pipeline().replace("encoder", "encoder", encoder);
         socketChannel.pipeline().replace("decoder", "decoder", decoder);
         socketChannel.pipeline().addAfter("packet_handler", "viaversion_packet_handler", chunkHandler);
+        // Keep the metrics of the connection once it's gone
+        socketChannel.closeFuture().addListener(new ChannelFutureListener() {
+            @Override
+            public void operationComplete(ChannelFuture future) throws Exception {
+                ((ViaVersionPlugin) ViaVersion.getInstance()).addClosedMetrics(info.getMetrics());
+            }
+        });
     }
 }
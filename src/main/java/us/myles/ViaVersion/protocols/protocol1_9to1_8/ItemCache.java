@@ -0,0 +1,151 @@
+package us.myles.ViaVersion.protocols.protocol1_9to1_8;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.cache.Weigher;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import us.myles.ViaVersion.api.minecraft.item.Item;
+import us.myles.ViaVersion.api.minecraft.nbt.LazyTag;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rewritten items shared by all connections, so the same items sent over and over (shops, kit menus and other GUIs)
+ * are only rewritten once. Items are identified by their 1.8 id, data and tag bytes, the amount isn't rewritten.
+ * The cached tags are read only heap buffers, a hit only sets them on the item so they're copied when it's written.
+ */
+public class ItemCache {
+    /**
+     * Rough size of the objects of an entry, so items without tags count too
+     */
+    private static final int ENTRY_OVERHEAD = 128;
+
+    private final Cache<Key, Entry> cache;
+    private final AtomicLong bytes = new AtomicLong();
+    private final long maxBytes;
+
+    public ItemCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher(new Weigher<Key, Entry>() {
+                    @Override
+                    public int weigh(Key key, Entry value) {
+                        return size(key, value);
+                    }
+                })
+                .removalListener(new RemovalListener<Key, Entry>() {
+                    @Override
+                    public void onRemoval(RemovalNotification<Key, Entry> notification) {
+                        bytes.addAndGet(-size(notification.getKey(), notification.getValue()));
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Create the key for an item, the key uses the tag of the item so the item must not be changed while it's used.
+     * Tags read from a packet aren't copied.
+     *
+     * @param item The item, before it's rewritten
+     * @return The key of the item
+     * @throws Exception If the tag couldn't be written
+     */
+    public Key key(Item item) throws Exception {
+        return new Key(item.getId(), item.getData(), toBuffer(item.getLazyTag()));
+    }
+
+    /**
+     * Rewrite an item like it was rewritten before
+     *
+     * @param key  The key of the item
+     * @param item The item to rewrite
+     * @return True if the item was cached and has been rewritten
+     */
+    public boolean apply(Key key, Item item) {
+        Entry entry = cache.getIfPresent(key);
+        if (entry == null) return false;
+        item.setId(entry.id);
+        item.setData(entry.data);
+        item.setLazyTag(entry.tag == null ? null : new LazyTag(entry.tag.duplicate()));
+        return true;
+    }
+
+    /**
+     * Cache a rewritten item
+     *
+     * @param key  The key of the item, from before it was rewritten
+     * @param item The rewritten item
+     * @throws Exception If the tag couldn't be written
+     */
+    public void put(Key key, Item item) throws Exception {
+        // Copy the key, it could still be using the packet's buffer
+        Key copy = new Key(key.id, key.data, copy(key.tag));
+        Entry entry = new Entry(item.getId(), item.getData(), copy(toBuffer(item.getLazyTag())));
+        bytes.addAndGet(size(copy, entry));
+        cache.put(copy, entry);
+    }
+
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    /**
+     * Get the amount of bytes used by cached items
+     *
+     * @return The amount of bytes
+     */
+    public long getBytes() {
+        return bytes.get();
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    private static int size(Key key, Entry entry) {
+        return ENTRY_OVERHEAD + (key.tag == null ? 0 : key.tag.capacity()) + (entry.tag == null ? 0 : entry.tag.capacity());
+    }
+
+    private static ByteBuf toBuffer(LazyTag tag) throws Exception {
+        if (tag == null || (tag.isParsed() && tag.getTag() == null)) return null;
+        if (!tag.isParsed()) {
+            return tag.getData().duplicate();
+        }
+        ByteBuf buffer = Unpooled.buffer();
+        tag.write(buffer);
+        return buffer;
+    }
+
+    private static ByteBuf copy(ByteBuf buffer) {
+        if (buffer == null) return null;
+        byte[] bytes = new byte[buffer.readableBytes()];
+        buffer.getBytes(buffer.readerIndex(), bytes);
+        return Unpooled.unmodifiableBuffer(Unpooled.wrappedBuffer(bytes));
+    }
+
+    /**
+     * Equal keys have the same tag bytes, ByteBuf compares and hashes its readable bytes
+     */
+    @RequiredArgsConstructor
+    @EqualsAndHashCode
+    public static class Key {
+        private final short id;
+        private final short data;
+        private final ByteBuf tag;
+    }
+
+    @RequiredArgsConstructor
+    private static class Entry {
+        private final short id;
+        private final short data;
+        private final ByteBuf tag;
+    }
+}
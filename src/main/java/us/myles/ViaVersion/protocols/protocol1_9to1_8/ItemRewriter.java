@@ -1,13 +1,11 @@
 package us.myles.ViaVersion.protocols.protocol1_9to1_8;
 
 import org.bukkit.Material;
-import org.spacehq.opennbt.tag.builtin.CompoundTag;
-import org.spacehq.opennbt.tag.builtin.ListTag;
-import org.spacehq.opennbt.tag.builtin.StringTag;
-import org.spacehq.opennbt.tag.builtin.Tag;
+import us.myles.ViaVersion.ViaVersionPlugin;
+import us.myles.ViaVersion.api.ViaVersion;
 import us.myles.ViaVersion.api.minecraft.item.Item;
+import us.myles.ViaVersion.api.minecraft.nbt.NBTPatch;
 
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -20,6 +18,19 @@ public class ItemRewriter {
 
     private static final Map<Integer, Integer> POTION_INDEX = new HashMap<>();
 
+    /* Tags are patched without parsing them, the patches are built once */
+    private static final NBTPatch EMPTY_PATCH = new NBTPatch();
+    private static final Map<Integer, NBTPatch> ENTITY_PATCHES = new HashMap<>();
+    private static final Map<Integer, NBTPatch> POTION_PATCHES = new HashMap<>();
+    private static final NBTPatch REMOVE_ENTITY_TAG = new NBTPatch().remove("EntityTag");
+    private static final NBTPatch REMOVE_POTION = new NBTPatch().remove("Potion");
+    private static final NBTPatch BOOK_PATCH = new NBTPatch().rewriteStrings("pages", new NBTPatch.StringRewriter() {
+        @Override
+        public String rewrite(String value) {
+            return Protocol1_9TO1_8.fixJson(value);
+        }
+    }, Protocol1_9TO1_8.fixJson(""));
+
     static {
         /* Entities */
         registerEntity(1, "Item");
@@ -140,109 +151,91 @@ public class ItemRewriter {
 
     public static void toServer(Item item) {
         if (item != null) {
-            if (item.getId() == Material.MONSTER_EGG.getId() && item.getData() == 0) {
-                CompoundTag tag = item.getTag();
-                int data = 0;
-                if (tag != null && tag.get("EntityTag") instanceof CompoundTag) {
-                    CompoundTag entityTag = tag.get("EntityTag");
-                    if (entityTag.get("id") instanceof StringTag) {
-                        StringTag id = entityTag.get("id");
-                        if (ENTTIY_NAME_TO_ID.containsKey(id.getValue()))
-                            data = ENTTIY_NAME_TO_ID.get(id.getValue());
+            try {
+                if (item.getId() == Material.MONSTER_EGG.getId() && item.getData() == 0) {
+                    int data = 0;
+                    if (item.getLazyTag() != null) {
+                        String id = NBTPatch.getString(item.getLazyTag(), "EntityTag", "id");
+                        if (id != null && ENTTIY_NAME_TO_ID.containsKey(id))
+                            data = ENTTIY_NAME_TO_ID.get(id);
+                        item.setLazyTag(REMOVE_ENTITY_TAG.apply(item.getLazyTag()));
                     }
-                    tag.remove("EntityTag");
+                    item.setData((short) data);
                 }
-                item.setTag(tag);
-                item.setData((short) data);
-            }
-            if (item.getId() == Material.POTION.getId()) {
-                CompoundTag tag = item.getTag();
-                int data = 0;
-                if (tag != null && tag.get("Potion") instanceof StringTag) {
-                    StringTag potion = tag.get("Potion");
-                    String potionName = potion.getValue().replace("minecraft:", "");
-                    if (POTION_NAME_TO_ID.containsKey(potionName)) {
-                        data = POTION_NAME_TO_ID.get(potionName);
-                    }
-                    tag.remove("Potion");
+                if (item.getId() == Material.POTION.getId()) {
+                    item.setData((short) potionToServer(item, 0));
                 }
-                item.setTag(tag);
-                item.setData((short) data);
-            }
-            //Splash potion
-            if (item.getId() == 438) {
-                CompoundTag tag = item.getTag();
-                int data = 0;
-                item.setId((short) Material.POTION.getId());
-                if (tag != null && tag.get("Potion") instanceof StringTag) {
-                    StringTag potion = tag.get("Potion");
-                    String potionName = potion.getValue().replace("minecraft:", "");
-                    if (POTION_NAME_TO_ID.containsKey(potionName)) {
-                        data = POTION_NAME_TO_ID.get(potionName) + 8192;
-                    }
-                    tag.remove("Potion");
+                //Splash potion
+                if (item.getId() == 438) {
+                    item.setId((short) Material.POTION.getId());
+                    item.setData((short) potionToServer(item, 8192));
                 }
-                item.setTag(tag);
-                item.setData((short) data);
+            } catch (Exception e) {
+                throw new IllegalArgumentException("Failed to rewrite the tag of " + item, e);
             }
         }
     }
 
     public static void toClient(Item item) {
         if (item != null) {
-            if (item.getId() == Material.MONSTER_EGG.getId() && item.getData() != 0) {
-                CompoundTag tag = item.getTag();
-                if (tag == null) {
-                    tag = new CompoundTag("tag");
+            // Only these items are rewritten
+            if (item.getId() != Material.MONSTER_EGG.getId() && item.getId() != Material.POTION.getId()
+                    && item.getId() != Material.WRITTEN_BOOK.getId()) return;
+            try {
+                ItemCache cache = ((ViaVersionPlugin) ViaVersion.getInstance()).getItemCache();
+                if (cache == null) {
+                    rewriteToClient(item);
+                    return;
                 }
-                CompoundTag entityTag = new CompoundTag("EntityTag");
-                if (ENTTIY_ID_TO_NAME.containsKey((int) item.getData())) {
-                    StringTag id = new StringTag("id", ENTTIY_ID_TO_NAME.get((int) item.getData()));
-                    entityTag.put(id);
-                    tag.put(entityTag);
+                ItemCache.Key key = cache.key(item);
+                if (!cache.apply(key, item)) {
+                    rewriteToClient(item);
+                    cache.put(key, item);
                 }
-                item.setTag(tag);
-                item.setData((short) 0);
+            } catch (Exception e) {
+                throw new IllegalArgumentException("Failed to rewrite the tag of " + item, e);
             }
-            if (item.getId() == Material.POTION.getId()) {
-                CompoundTag tag = item.getTag();
-                if (tag == null) {
-                    tag = new CompoundTag("tag");
-                }
-                if (item.getData() >= 16384) {
-                    item.setId((short) 438); // splash id
-                    item.setData((short) (item.getData() - 8192));
-                }
-                if (POTION_ID_TO_NAME.containsKey((int) item.getData())) {
-                    String name = POTION_ID_TO_NAME.get((int) item.getData());
-                    StringTag potion = new StringTag("Potion", "minecraft:" + name);
-                    tag.put(potion);
-                }
-                item.setTag(tag);
-                item.setData((short) 0);
+        }
+    }
+
+    private static void rewriteToClient(Item item) throws Exception {
+        if (item.getId() == Material.MONSTER_EGG.getId() && item.getData() != 0) {
+            NBTPatch patch = ENTITY_PATCHES.get((int) item.getData());
+            patchTag(item, patch == null ? EMPTY_PATCH : patch);
+            item.setData((short) 0);
+        }
+        if (item.getId() == Material.POTION.getId()) {
+            if (item.getData() >= 16384) {
+                item.setId((short) 438); // splash id
+                item.setData((short) (item.getData() - 8192));
             }
-            if (item.getId() == Material.WRITTEN_BOOK.getId()) {
-                CompoundTag tag = item.getTag();
-                if (tag == null) {
-                    tag = new CompoundTag("tag");
-                }
-                ListTag pages = tag.get("pages");
-                if (pages == null) {
-                    pages = new ListTag("pages", Collections.<Tag>singletonList(new StringTag(Protocol1_9TO1_8.fixJson(""))));
-                    tag.put(pages);
-                    item.setTag(tag);
-                    return;
-                }
+            NBTPatch patch = POTION_PATCHES.get((int) item.getData());
+            patchTag(item, patch == null ? EMPTY_PATCH : patch);
+            item.setData((short) 0);
+        }
+        if (item.getId() == Material.WRITTEN_BOOK.getId()) {
+            item.setLazyTag(BOOK_PATCH.apply(item.getLazyTag()));
+        }
+    }
 
-                for (int i = 0; i < pages.size(); i++) {
-                    if (!(pages.get(i) instanceof StringTag))
-                        continue;
-                    StringTag page = pages.get(i);
-                    page.setValue(Protocol1_9TO1_8.fixJson(page.getValue()));
-                }
-                item.setTag(tag);
+    private static void patchTag(Item item, NBTPatch patch) throws Exception {
+        // Nothing to change, but items without a tag still get an empty one
+        if (patch == EMPTY_PATCH && item.getLazyTag() != null) return;
+        item.setLazyTag(patch.apply(item.getLazyTag()));
+    }
+
+    private static int potionToServer(Item item, int offset) throws Exception {
+        if (item.getLazyTag() == null) return 0;
+        int data = 0;
+        String potion = NBTPatch.getString(item.getLazyTag(), "Potion");
+        if (potion != null) {
+            String potionName = potion.replace("minecraft:", "");
+            if (POTION_NAME_TO_ID.containsKey(potionName)) {
+                data = POTION_NAME_TO_ID.get(potionName) + offset;
             }
+            item.setLazyTag(REMOVE_POTION.apply(item.getLazyTag()));
         }
+        return data;
     }
 
     public static int getNewEffectID(int oldID) {
@@ -255,11 +248,13 @@ public class ItemRewriter {
     private static void registerEntity(Integer id, String name) {
         ENTTIY_ID_TO_NAME.put(id, name);
         ENTTIY_NAME_TO_ID.put(name, id);
+        ENTITY_PATCHES.put(id, new NBTPatch().putCompound("EntityTag", new NBTPatch().putString("id", name)));
     }
 
     private static void registerPotion(Integer id, String name) {
         POTION_INDEX.put(id, POTION_ID_TO_NAME.size());
         POTION_ID_TO_NAME.put(id, name);
         POTION_NAME_TO_ID.put(name, id);
+        POTION_PATCHES.put(id, new NBTPatch().putString("Potion", "minecraft:" + name));
     }
 }
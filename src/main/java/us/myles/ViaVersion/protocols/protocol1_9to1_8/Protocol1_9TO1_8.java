@@ -1,5 +1,8 @@
 package us.myles.ViaVersion.protocols.protocol1_9to1_8;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonObject;
@@ -14,18 +17,22 @@ import us.myles.ViaVersion.api.minecraft.metadata.Metadata;
 import us.myles.ViaVersion.api.protocol.Protocol;
 import us.myles.ViaVersion.api.remapper.ValueTransformer;
 import us.myles.ViaVersion.api.type.Type;
+import us.myles.ViaVersion.packets.State;
 import us.myles.ViaVersion.protocols.base.ProtocolInfo;
 import us.myles.ViaVersion.protocols.protocol1_9to1_8.listeners.ArmorListener;
 import us.myles.ViaVersion.protocols.protocol1_9to1_8.listeners.BlockListener;
 import us.myles.ViaVersion.protocols.protocol1_9to1_8.listeners.CommandBlockListener;
 import us.myles.ViaVersion.protocols.protocol1_9to1_8.listeners.PaperPatch;
 import us.myles.ViaVersion.protocols.protocol1_9to1_8.packets.*;
+import us.myles.ViaVersion.protocols.protocol1_9to1_8.sounds.SoundEffect;
 import us.myles.ViaVersion.protocols.protocol1_9to1_8.storage.ClientChunks;
 import us.myles.ViaVersion.protocols.protocol1_9to1_8.storage.EntityTracker;
 import us.myles.ViaVersion.protocols.protocol1_9to1_8.storage.InventoryTracker;
 import us.myles.ViaVersion.protocols.protocol1_9to1_8.storage.MovementTracker;
 import us.myles.ViaVersion.protocols.protocol1_9to1_8.types.MetadataListType;
 import us.myles.ViaVersion.protocols.protocol1_9to1_8.types.MetadataType;
+import us.myles.ViaVersion.protocols.protocol1_9to1_8.types.SoundEffectType;
+import us.myles.ViaVersion.util.JsonValidator;
 
 import java.util.List;
 import java.util.UUID;
@@ -35,6 +42,7 @@ import java.util.concurrent.TimeUnit;
 public class Protocol1_9TO1_8 extends Protocol {
     public static Type<List<Metadata>> METADATA_LIST = new MetadataListType();
     public static Type<Metadata> METADATA = new MetadataType();
+    public static Type<SoundEffect> SOUND_EFFECT = new SoundEffectType();
     private static Gson gson = new GsonBuilder().create();
     public static ValueTransformer<String, String> FIX_JSON = new ValueTransformer<String, String>(Type.STRING) {
         @Override
@@ -43,18 +51,43 @@ public class Protocol1_9TO1_8 extends Protocol {
         }
     };
 
+    /**
+     * Recently fixed json, the same text is often sent to a lot of players (chat) or over and over (scoreboards, tab lists)
+     */
+    private static final Cache<String, String> FIXED_JSON = CacheBuilder.newBuilder()
+            .maximumWeight(1024 * 1024) // Characters
+            .weigher(new Weigher<String, String>() {
+                @Override
+                public int weigh(String key, String value) {
+                    return key.length() + value.length();
+                }
+            })
+            .build();
+
     public static String fixJson(String line) {
         if (line == null || line.equalsIgnoreCase("null")) {
-            line = "{\"text\":\"\"}";
-        } else {
-            if ((!line.startsWith("\"") || !line.endsWith("\"")) && (!line.startsWith("{") || !line.endsWith("}"))) {
-                JsonObject jsonObject = new JsonObject();
-                jsonObject.addProperty("text", line);
-                return gson.toJson(jsonObject);
-            }
-            if (line.startsWith("\"") && line.endsWith("\"")) {
-                line = "{\"text\":" + line + "}";
-            }
+            return "{\"text\":\"\"}";
+        }
+        String fixed = FIXED_JSON.getIfPresent(line);
+        if (fixed == null) {
+            fixed = fixUncachedJson(line);
+            FIXED_JSON.put(line, fixed);
+        }
+        return fixed;
+    }
+
+    private static String fixUncachedJson(String line) {
+        if ((!line.startsWith("\"") || !line.endsWith("\"")) && (!line.startsWith("{") || !line.endsWith("}"))) {
+            JsonObject jsonObject = new JsonObject();
+            jsonObject.addProperty("text", line);
+            return gson.toJson(jsonObject);
+        }
+        if (line.startsWith("\"") && line.endsWith("\"")) {
+            line = "{\"text\":" + line + "}";
+        }
+        // Most json is strict, only parse it if it isn't to see if gson accepts it
+        if (JsonValidator.isObject(line)) {
+            return line;
         }
         try {
             gson.fromJson(line, JsonObject.class);
@@ -108,6 +141,12 @@ public class Protocol1_9TO1_8 extends Protocol {
             new ViaIdleThread(plugin.getPortedPlayers()).runTaskTimerAsynchronously(plugin, 1L, 1L); // Updates player's idle status
     }
 
+    @Override
+    public boolean isAsyncOutgoing(State state, int packetID) {
+        // Chunk Packet, only uses ClientChunks
+        return state == State.PLAY && packetID == 0x21;
+    }
+
     @Override
     public boolean isFiltered(Class packetClass) {
         return packetClass.getName().endsWith("PacketPlayOutMapChunkBulk");
@@ -115,7 +154,12 @@ public class Protocol1_9TO1_8 extends Protocol {
 
     @Override
     protected void filterPacket(UserConnection info, Object packet, List output) throws Exception {
-        output.addAll(info.get(ClientChunks.class).transformMapChunkBulk(packet));
+        ClientChunks clientChunks = info.get(ClientChunks.class);
+        if (ViaVersion.getConfig().isDirectChunkBulk()) {
+            output.addAll(clientChunks.writeMapChunkBulk(packet));
+        } else {
+            output.addAll(clientChunks.transformMapChunkBulk(packet));
+        }
     }
 
     @Override
@@ -0,0 +1,157 @@
+package us.myles.ViaVersion.protocols.protocol1_9to1_8.chunks;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.cache.Weigher;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import us.myles.ViaVersion.util.HashUtil;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Translated chunk data shared by all connections, so the same chunk sent to many players (spawn chunks in a lobby)
+ * is only translated once. Chunks are identified by their position and a hash of their 1.8 data, the translation
+ * only depends on those bytes so the world doesn't matter.
+ * Players decide what's in a chunk, so the hashes are seeded randomly and the 1.8 data is kept to check a hit is
+ * really the same chunk.
+ * The cached buffers are read only heap buffers, they're never released so they can be read while being evicted.
+ */
+public class ChunkCache {
+    private final Cache<Key, Entry> cache;
+    private final AtomicLong bytes = new AtomicLong();
+    private final long maxBytes;
+    private final long seed1;
+    private final long seed2;
+
+    public ChunkCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+        SecureRandom random = new SecureRandom();
+        this.seed1 = random.nextLong();
+        this.seed2 = random.nextLong();
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher(new Weigher<Key, Entry>() {
+                    @Override
+                    public int weigh(Key key, Entry value) {
+                        return value.size();
+                    }
+                })
+                .removalListener(new RemovalListener<Key, Entry>() {
+                    @Override
+                    public void onRemoval(RemovalNotification<Key, Entry> notification) {
+                        bytes.addAndGet(-notification.getValue().size());
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Create the key for a chunk, this hashes the whole chunk data
+     *
+     * @param chunk The chunk
+     * @return The key of the chunk
+     */
+    public Key key(RawChunk chunk) {
+        ByteBuf data = chunk.getData();
+        int length = data.readableBytes();
+        int index = data.readerIndex();
+        int end = index + length;
+        // Two independent hashes, a collision would send the wrong chunk
+        long h1 = seed1;
+        long h2 = seed2;
+        for (; index + 8 <= end; index += 8) {
+            long value = data.getLong(index);
+            h1 = Long.rotateLeft(h1 ^ value * 0x87C37B91114253D5L, 31) * 5 + 0x52DCE729;
+            h2 = Long.rotateLeft(h2 ^ value * 0x4CF5AD432745937FL, 33) * 5 + 0x38495AB5;
+        }
+        for (; index < end; index++) {
+            byte value = data.getByte(index);
+            h1 = (h1 ^ value) * 0x87C37B91114253D5L;
+            h2 = (h2 ^ value) * 0x4CF5AD432745937FL;
+        }
+        return new Key(chunk.getX(), chunk.getZ(), chunk.isGroundUp(), chunk.getPrimaryBitmask(), length, HashUtil.mix(h1), HashUtil.mix(h2));
+    }
+
+    /**
+     * Get the translated data of a chunk
+     *
+     * @param key   The key of the chunk
+     * @param chunk The chunk, its data is compared with the cached chunk
+     * @return A read only buffer with the data, null if it isn't cached
+     */
+    public ByteBuf get(Key key, RawChunk chunk) {
+        Entry entry = cache.getIfPresent(key);
+        if (entry == null || !ByteBufUtil.equals(entry.data, chunk.getData())) return null;
+        return entry.translated;
+    }
+
+    /**
+     * Cache the translated data of a chunk
+     *
+     * @param key    The key of the chunk
+     * @param chunk  The chunk which was translated
+     * @param buffer The buffer holding the translated data
+     * @param index  The index of the translated data in the buffer
+     * @param length The length of the translated data
+     */
+    public void put(Key key, RawChunk chunk, ByteBuf buffer, int index, int length) {
+        Entry entry = new Entry(copy(chunk.getData(), chunk.getData().readerIndex(), chunk.getData().readableBytes()),
+                copy(buffer, index, length));
+        bytes.addAndGet(entry.size());
+        cache.put(key, entry);
+    }
+
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    /**
+     * Get the amount of bytes used by cached chunks
+     *
+     * @return The amount of bytes
+     */
+    public long getBytes() {
+        return bytes.get();
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    private static ByteBuf copy(ByteBuf buffer, int index, int length) {
+        byte[] data = new byte[length];
+        buffer.getBytes(index, data);
+        return Unpooled.unmodifiableBuffer(Unpooled.wrappedBuffer(data));
+    }
+
+    @RequiredArgsConstructor
+    private static class Entry {
+        private final ByteBuf data;
+        private final ByteBuf translated;
+
+        public int size() {
+            return data.capacity() + translated.capacity();
+        }
+    }
+
+    @RequiredArgsConstructor
+    @EqualsAndHashCode
+    public static class Key {
+        private final int x;
+        private final int z;
+        private final boolean groundUp;
+        private final int primaryBitmask;
+        private final int length;
+        private final long hash1;
+        private final long hash2;
+    }
+}
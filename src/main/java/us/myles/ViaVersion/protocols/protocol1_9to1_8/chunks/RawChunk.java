@@ -0,0 +1,195 @@
+package us.myles.ViaVersion.protocols.protocol1_9to1_8.chunks;
+
+import io.netty.buffer.ByteBuf;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import org.bukkit.Bukkit;
+import us.myles.ViaVersion.api.minecraft.chunks.Chunk;
+import us.myles.ViaVersion.api.minecraft.chunks.ChunkSection;
+
+import java.util.logging.Level;
+
+/**
+ * A 1.8 chunk which hasn't been parsed, the section data is a slice of the packet.
+ * The slice is only valid while the packet is being translated.
+ */
+@RequiredArgsConstructor
+@Getter
+@ToString(exclude = "data")
+public class RawChunk {
+    /**
+     * Size of the block data of a section (a short per block).
+     */
+    public static final int BLOCKS_LENGTH = ChunkSection.SIZE * 2;
+    /**
+     * Length of biome data.
+     */
+    public static final int BIOME_DATA_LENGTH = 256;
+
+    private final int x;
+    private final int z;
+    private final boolean groundUp;
+    private final int primaryBitmask;
+    private final boolean skyLight;
+    private final boolean biomeData;
+    private final ByteBuf data;
+    private boolean unloadPacket = false;
+
+    /**
+     * Chunk unload.
+     *
+     * @param x coord
+     * @param z coord
+     */
+    public RawChunk(int x, int z) {
+        this(x, z, true, 0, false, false, null);
+        this.unloadPacket = true;
+    }
+
+    /**
+     * Create a chunk from its 1.8 data, checks which parts of the data are there.
+     *
+     * @param x              coord
+     * @param z              coord
+     * @param groundUp       If the chunk is ground up
+     * @param primaryBitmask The sections sent in the chunk
+     * @param data           The chunk data, only the used part is kept
+     * @return The chunk
+     */
+    public static RawChunk of(int x, int z, boolean groundUp, int primaryBitmask, ByteBuf data) {
+        int sectionCount = Integer.bitCount(primaryBitmask & 0xFFFF);
+
+        // Blocks and block light are always there, sky light and biomes only if there's room for them
+        int length = sectionCount * (BLOCKS_LENGTH + ChunkSection.LIGHT_LENGTH);
+        int bytesLeft = data.readableBytes() - length;
+        boolean skyLight = bytesLeft >= ChunkSection.LIGHT_LENGTH;
+        if (skyLight) {
+            length += sectionCount * ChunkSection.LIGHT_LENGTH;
+            bytesLeft -= sectionCount * ChunkSection.LIGHT_LENGTH;
+        }
+        boolean biomeData = bytesLeft >= BIOME_DATA_LENGTH;
+        if (biomeData) {
+            length += BIOME_DATA_LENGTH;
+            bytesLeft -= BIOME_DATA_LENGTH;
+        }
+
+        // Check remaining bytes
+        if (bytesLeft > 0) {
+            Bukkit.getLogger().log(Level.WARNING, bytesLeft + " Bytes left after reading chunk! (" + groundUp + ")");
+        }
+
+        return new RawChunk(x, z, groundUp, primaryBitmask, skyLight, biomeData, data.slice(data.readerIndex(), length));
+    }
+
+    /**
+     * Get the amount of sections sent in this chunk
+     *
+     * @return The amount of sections
+     */
+    public int getSectionCount() {
+        return Integer.bitCount(primaryBitmask & 0xFFFF);
+    }
+
+    /**
+     * Get the index of the blocks of a section in the data
+     *
+     * @param section The index of the section in the data (not the y of the section)
+     * @return The index in the data
+     */
+    public int blocksIndex(int section) {
+        return section * BLOCKS_LENGTH;
+    }
+
+    /**
+     * Get the index of the block light of a section in the data
+     *
+     * @param section The index of the section in the data (not the y of the section)
+     * @return The index in the data
+     */
+    public int blockLightIndex(int section) {
+        return getSectionCount() * BLOCKS_LENGTH + section * ChunkSection.LIGHT_LENGTH;
+    }
+
+    /**
+     * Get the index of the sky light of a section in the data
+     *
+     * @param section The index of the section in the data (not the y of the section)
+     * @return The index in the data
+     */
+    public int skyLightIndex(int section) {
+        return getSectionCount() * (BLOCKS_LENGTH + ChunkSection.LIGHT_LENGTH) + section * ChunkSection.LIGHT_LENGTH;
+    }
+
+    /**
+     * Get the index of the biome data in the data
+     *
+     * @return The index in the data
+     */
+    public int biomeIndex() {
+        return getSectionCount() * (BLOCKS_LENGTH + ChunkSection.LIGHT_LENGTH + (skyLight ? ChunkSection.LIGHT_LENGTH : 0));
+    }
+
+    /**
+     * Does this chunk have biome data
+     *
+     * @return True if the chunk has biome data
+     */
+    public boolean hasBiomeData() {
+        return biomeData && groundUp;
+    }
+
+    /**
+     * Read the blocks of a section from the data
+     *
+     * @param section The index of the section in the data (not the y of the section)
+     * @param target  The section to set the blocks of
+     */
+    public void readBlocks(int section, ChunkSection target) {
+        int index = blocksIndex(section);
+        for (int i = 0; i < ChunkSection.SIZE; i++) {
+            // Little endian (type << 4 | data)
+            int mask = Short.reverseBytes(data.getShort(index));
+            target.setBlock(i, mask >> 4, mask & 0xF);
+            index += 2;
+        }
+    }
+
+    /**
+     * Parse this chunk into sections
+     *
+     * @return The parsed chunk
+     */
+    public Chunk toChunk() {
+        if (unloadPacket) {
+            return new Chunk(x, z);
+        }
+
+        ChunkSection[] sections = new ChunkSection[16];
+        int section = 0;
+        for (int i = 0; i < 16; i++) {
+            if ((primaryBitmask & (1 << i)) == 0) continue; // Section not set
+            ChunkSection chunkSection = new ChunkSection();
+            readBlocks(section, chunkSection);
+
+            byte[] blockLightArray = new byte[ChunkSection.LIGHT_LENGTH];
+            data.getBytes(blockLightIndex(section), blockLightArray);
+            chunkSection.setBlockLight(blockLightArray);
+
+            if (skyLight) {
+                byte[] skyLightArray = new byte[ChunkSection.LIGHT_LENGTH];
+                data.getBytes(skyLightIndex(section), skyLightArray);
+                chunkSection.setSkyLight(skyLightArray);
+            }
+            sections[i] = chunkSection;
+            section++;
+        }
+
+        byte[] biomes = null;
+        if (biomeData) {
+            biomes = new byte[BIOME_DATA_LENGTH];
+            data.getBytes(biomeIndex(), biomes);
+        }
+        return new Chunk(x, z, groundUp, primaryBitmask, sections, biomes);
+    }
+}
@@ -156,12 +156,39 @@ public enum MetaIndex {
         this.newType = newType;
     }
 
+    /**
+     * Amount of metadata indexes in 1.8 (the index is 5 bits).
+     */
+    private static final int INDEX_COUNT = 32;
+    /**
+     * Indexes of every entity type, [type ordinal][index], null for types without an entity class.
+     */
+    private static final MetaIndex[][] INDEXES;
+
+    static {
+        EntityType[] types = EntityType.values();
+        INDEXES = new MetaIndex[types.length][];
+        for (EntityType type : types) {
+            Class<? extends org.bukkit.entity.Entity> entityClass = type.getEntityClass();
+            if (entityClass == null) continue;
+            MetaIndex[] indexes = new MetaIndex[INDEX_COUNT];
+            for (int i = 0; i < INDEX_COUNT; i++) {
+                indexes[i] = searchIndex(entityClass, i);
+            }
+            INDEXES[type.ordinal()] = indexes;
+        }
+    }
+
     public static MetaIndex getIndex(EntityType type, int index) {
-        Class<? extends org.bukkit.entity.Entity> entityClass = type.getEntityClass();
-        if (entityClass == null) {
+        MetaIndex[] indexes = INDEXES[type.ordinal()];
+        if (indexes == null) {
             System.out.println("Could not get entity class for " + type);
             return null;
         }
+        return index >= 0 && index < INDEX_COUNT ? indexes[index] : null;
+    }
+
+    private static MetaIndex searchIndex(Class<? extends org.bukkit.entity.Entity> entityClass, int index) {
         for (MetaIndex mi : MetaIndex.values()) {
             if (mi.getIndex() == index) {
                 // To fix issue with armour stands colliding with new values
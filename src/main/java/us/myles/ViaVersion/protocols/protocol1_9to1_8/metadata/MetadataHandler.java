@@ -0,0 +1,21 @@
+package us.myles.ViaVersion.protocols.protocol1_9to1_8.metadata;
+
+import us.myles.ViaVersion.api.minecraft.metadata.Metadata;
+
+/**
+ * Gets the entries of a metadata list while {@link MetadataRewriter} rewrites it.
+ */
+public interface MetadataHandler {
+    /**
+     * Handle a rewritten entry
+     *
+     * @param metadata The entry, with its 1.9 id and value
+     * @return False to remove the entry
+     */
+    boolean handle(Metadata metadata);
+
+    /**
+     * Called once all entries are rewritten
+     */
+    void finish();
+}
@@ -1,5 +1,6 @@
 package us.myles.ViaVersion.protocols.protocol1_9to1_8.metadata;
 
+import org.bukkit.Bukkit;
 import org.bukkit.entity.EntityType;
 import org.bukkit.util.EulerAngle;
 import org.bukkit.util.Vector;
@@ -9,16 +10,40 @@ import us.myles.ViaVersion.api.minecraft.metadata.Metadata;
 import us.myles.ViaVersion.protocols.protocol1_9to1_8.ItemRewriter;
 import us.myles.ViaVersion.protocols.protocol1_9to1_8.Protocol1_9TO1_8;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.logging.Level;
 
 public class MetadataRewriter {
+    /**
+     * Rewrite a 1.8 metadata list to 1.9 in place, entries which don't exist in 1.9 are removed.
+     *
+     * @param type The type of the entity, null if unknown
+     * @param list The metadata list
+     */
     public static void transform(EntityType type, List<Metadata> list) {
+        transform(type, list, null);
+    }
+
+    /**
+     * Rewrite a 1.8 metadata list to 1.9 in place, entries which don't exist in 1.9 are removed.
+     * The handler gets every rewritten entry in the same pass.
+     *
+     * @param type    The type of the entity, null if unknown
+     * @param list    The metadata list
+     * @param handler The handler, null for none
+     */
+    public static void transform(EntityType type, List<Metadata> list, MetadataHandler handler) {
         short id = -1;
         int data = -1;
-        for (Metadata entry : new ArrayList<>(list)) {
+        Metadata hand = null;
+        // Kept entries are moved to the front, the rest is cut off at the end
+        int size = list.size();
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            Metadata entry = list.get(i);
             MetaIndex metaIndex = MetaIndex.getIndex(type, entry.getId());
+            boolean keep = true;
             try {
                 if (metaIndex != null) {
                     if (metaIndex.getNewType() != NewType.Discontinued) {
@@ -45,8 +70,7 @@ public class MetadataRewriter {
                                     }
                                     int newIndex = MetaIndex.PLAYER_HAND.getNewIndex();
                                     int typeID = MetaIndex.PLAYER_HAND.getNewType().getTypeID();
-                                    Metadata metadata = new Metadata(newIndex, typeID, us.myles.ViaVersion.api.type.Type.BYTE, val);
-                                    list.add(metadata);
+                                    hand = new Metadata(newIndex, typeID, us.myles.ViaVersion.api.type.Type.BYTE, val);
                                 }
                                 break;
                             case OptUUID:
@@ -76,7 +100,7 @@ public class MetadataRewriter {
                                     id = -1;
                                     entry.setValue(combined);
                                 } else {
-                                    list.remove(entry);
+                                    keep = false;
                                 }
                                 break;
                             case VarInt:
@@ -128,33 +152,50 @@ public class MetadataRewriter {
                                 entry.setValue(value);
                                 break;
                             default:
-                                System.out.println("[Out] Unhandled MetaDataType: " + metaIndex.getNewType());
-                                list.remove(entry);
+                                Bukkit.getLogger().warning("[Out] Unhandled MetaDataType: " + metaIndex.getNewType());
+                                keep = false;
                                 break;
                         }
                     } else {
-                        list.remove(entry);
+                        keep = false;
                     }
                 } else {
                     throw new Exception("Could not find valid metadata");
                 }
             } catch (Exception e) {
-                list.remove(entry);
+                keep = false;
                 if (!ViaVersion.getConfig().isSuppressMetadataErrors() || ViaVersion.getInstance().isDebug()) {
-                    System.out.println("INCLUDE THIS IN YOUR ERROR LOG!");
-                    if (type != null)
-                        System.out.println("An error occurred with entity meta data for " + type + " OldID: " + entry.getId());
-                    else
-                        System.out.println("An error occurred with entity meta data for UNKNOWN_ENTITY OldID: " + entry.getId());
+                    StringBuilder message = new StringBuilder("INCLUDE THIS IN YOUR ERROR LOG!\n");
+                    message.append("An error occurred with entity meta data for ").append(type != null ? type : "UNKNOWN_ENTITY").append(" OldID: ").append(entry.getId());
                     if (metaIndex != null) {
-                        System.out.println("Value: " + entry.getValue());
-                        System.out.println("Old ID: " + metaIndex.getIndex() + " New ID: " + metaIndex.getNewIndex());
-                        System.out.println("Old Type: " + metaIndex.getOldType() + " New Type: " + metaIndex.getNewType());
+                        message.append("\nValue: ").append(entry.getValue());
+                        message.append("\nOld ID: ").append(metaIndex.getIndex()).append(" New ID: ").append(metaIndex.getNewIndex());
+                        message.append("\nOld Type: ").append(metaIndex.getOldType()).append(" New Type: ").append(metaIndex.getNewType());
                     }
-                    e.printStackTrace();
+                    Bukkit.getLogger().log(Level.WARNING, message.toString(), e);
+                }
+            }
+            if (keep && handler != null) {
+                keep = handler.handle(entry);
+            }
+            if (keep) {
+                if (kept != i) {
+                    list.set(kept, entry);
                 }
+                kept++;
             }
         }
+        // Remove from the end, so nothing has to be shifted
+        for (int i = size - 1; i >= kept; i--) {
+            list.remove(i);
+        }
+        // Added after the rewritten entries
+        if (hand != null) {
+            list.add(hand);
+        }
+        if (handler != null) {
+            handler.finish();
+        }
     }
 
 }
@@ -1,6 +1,7 @@
 package us.myles.ViaVersion.protocols.protocol1_9to1_8.packets;
 
 import org.bukkit.Material;
+import org.bukkit.entity.EntityType;
 import us.myles.ViaVersion.api.PacketWrapper;
 import us.myles.ViaVersion.api.ViaVersion;
 import us.myles.ViaVersion.api.minecraft.item.Item;
@@ -25,6 +26,13 @@ public class EntityPackets {
             return (short) (inputValue * 128);
         }
     };
+    // Same as toNewShort, reads a BYTE (relative move, 1/32) and writes it as a SHORT (1/4096) without boxing
+    public static PacketHandler toNewShortHandler = new PacketHandler() {
+        @Override
+        public void handle(PacketWrapper wrapper) throws Exception {
+            wrapper.writeShort(Type.SHORT, (short) (wrapper.readByte(Type.BYTE) * 128));
+        }
+    };
 
     public static void register(Protocol protocol) {
         // Attach Entity Packet
@@ -41,21 +49,21 @@ public class EntityPackets {
                     public Void transform(PacketWrapper wrapper, Boolean inputValue) throws Exception {
                         EntityTracker tracker = wrapper.user().get(EntityTracker.class);
                         if (!inputValue) {
-                            int passenger = wrapper.get(Type.INT, 0);
-                            int vehicle = wrapper.get(Type.INT, 1);
+                            int passenger = wrapper.getInt(Type.INT, 0);
+                            int vehicle = wrapper.getInt(Type.INT, 1);
 
                             wrapper.cancel(); // Don't send current packet
 
                             PacketWrapper passengerPacket = wrapper.create(0x40); // Passenger Packet ID
                             if (vehicle == -1) {
-                                if (!tracker.getVehicleMap().containsKey(passenger))
+                                if (!tracker.hasVehicle(passenger))
                                     return null; // Cancel
-                                passengerPacket.write(Type.VAR_INT, tracker.getVehicleMap().remove(passenger));
+                                passengerPacket.write(Type.VAR_INT, tracker.removeVehicle(passenger));
                                 passengerPacket.write(Type.VAR_INT_ARRAY, new Integer[]{});
                             } else {
                                 passengerPacket.write(Type.VAR_INT, vehicle);
                                 passengerPacket.write(Type.VAR_INT_ARRAY, new Integer[]{passenger});
-                                tracker.getVehicleMap().put(passenger, vehicle);
+                                tracker.setVehicle(passenger, vehicle);
                             }
                             passengerPacket.send(); // Send the packet
                         }
@@ -70,9 +78,9 @@ public class EntityPackets {
             @Override
             public void registerMap() {
                 map(Type.VAR_INT); // 0 - Entity ID
-                map(Type.INT, SpawnPackets.toNewDouble); // 1 - X - Needs to be divide by 32
-                map(Type.INT, SpawnPackets.toNewDouble); // 2 - Y - Needs to be divide by 32
-                map(Type.INT, SpawnPackets.toNewDouble); // 3 - Z - Needs to be divide by 32
+                handler(SpawnPackets.toNewDoubleHandler); // 1 - X - Needs to be divide by 32
+                handler(SpawnPackets.toNewDoubleHandler); // 2 - Y - Needs to be divide by 32
+                handler(SpawnPackets.toNewDoubleHandler); // 3 - Z - Needs to be divide by 32
 
                 map(Type.BYTE); // 4 - Pitch
                 map(Type.BYTE); // 5 - Yaw
@@ -82,13 +90,13 @@ public class EntityPackets {
                 handler(new PacketHandler() {
                     @Override
                     public void handle(PacketWrapper wrapper) throws Exception {
-                        int entityID = wrapper.get(Type.VAR_INT, 0);
+                        int entityID = wrapper.getInt(Type.VAR_INT, 0);
                         if (ViaVersion.getConfig().isHologramPatch()) {
                             EntityTracker tracker = wrapper.user().get(EntityTracker.class);
-                            if (tracker.getKnownHolograms().contains(entityID)) {
-                                Double newValue = wrapper.get(Type.DOUBLE, 1);
+                            if (tracker.isKnownHologram(entityID)) {
+                                double newValue = wrapper.getDouble(Type.DOUBLE, 1);
                                 newValue += (ViaVersion.getConfig().getHologramYOffset());
-                                wrapper.set(Type.DOUBLE, 1, newValue);
+                                wrapper.setDouble(Type.DOUBLE, 1, newValue);
                             }
                         }
                     }
@@ -103,9 +111,9 @@ public class EntityPackets {
             @Override
             public void registerMap() {
                 map(Type.VAR_INT); // 0 - Entity ID
-                map(Type.BYTE, toNewShort); // 1 - X
-                map(Type.BYTE, toNewShort); // 2 - Y
-                map(Type.BYTE, toNewShort); // 3 - Z
+                handler(toNewShortHandler); // 1 - X
+                handler(toNewShortHandler); // 2 - Y
+                handler(toNewShortHandler); // 3 - Z
 
                 map(Type.BYTE); // 4 - Yaw
                 map(Type.BYTE); // 5 - Pitch
@@ -119,9 +127,9 @@ public class EntityPackets {
             @Override
             public void registerMap() {
                 map(Type.VAR_INT); // 0 - Entity ID
-                map(Type.BYTE, toNewShort); // 1 - X
-                map(Type.BYTE, toNewShort); // 2 - Y
-                map(Type.BYTE, toNewShort); // 3 - Z
+                handler(toNewShortHandler); // 1 - X
+                handler(toNewShortHandler); // 2 - Y
+                handler(toNewShortHandler); // 3 - Z
 
                 map(Type.BOOLEAN); // 4 - On Ground
             }
@@ -153,18 +161,18 @@ public class EntityPackets {
                     @Override
                     public void handle(PacketWrapper wrapper) throws Exception {
                         EntityTracker entityTracker = wrapper.user().get(EntityTracker.class);
-                        int entityID = wrapper.get(Type.VAR_INT, 0);
+                        int entityID = wrapper.getInt(Type.VAR_INT, 0);
                         Item stack = wrapper.get(Type.ITEM, 0);
 
                         if (stack != null) {
                             if (Material.getMaterial(stack.getId()) != null) {
                                 if (Material.getMaterial(stack.getId()).name().endsWith("SWORD")) {
-                                    entityTracker.getValidBlocking().add(entityID);
+                                    entityTracker.setValidBlocking(entityID, true);
                                     return;
                                 }
                             }
                         }
-                        entityTracker.getValidBlocking().remove(entityID);
+                        entityTracker.setValidBlocking(entityID, false);
                     }
                 });
             }
@@ -180,10 +188,11 @@ public class EntityPackets {
                     @Override
                     public void handle(PacketWrapper wrapper) throws Exception {
                         List<Metadata> metadataList = wrapper.get(Protocol1_9TO1_8.METADATA_LIST, 0);
-                        int entityID = wrapper.get(Type.VAR_INT, 0);
+                        int entityID = wrapper.getInt(Type.VAR_INT, 0);
                         EntityTracker tracker = wrapper.user().get(EntityTracker.class);
-                        if (tracker.getClientEntityTypes().containsKey(entityID)) {
-                            MetadataRewriter.transform(tracker.getClientEntityTypes().get(entityID), metadataList);
+                        EntityType type = tracker.getEntityType(entityID);
+                        if (type != null) {
+                            MetadataRewriter.transform(type, metadataList, tracker.getMetadataHandler(entityID, type));
                         } else if (!ViaVersion.getConfig().isUnknownEntitiesSuppressed() || ViaVersion.getInstance().isDebug()) {
                             System.out.println("Unable to find entity for metadata, entity ID: " + entityID);
                             metadataList.clear();
@@ -191,17 +200,6 @@ public class EntityPackets {
                     }
                 });
 
-                // Handler for meta data
-                handler(new PacketHandler() {
-                    @Override
-                    public void handle(PacketWrapper wrapper) throws Exception {
-                        List<Metadata> metadataList = wrapper.get(Protocol1_9TO1_8.METADATA_LIST, 0);
-                        int entityID = wrapper.get(Type.VAR_INT, 0);
-                        EntityTracker tracker = wrapper.user().get(EntityTracker.class);
-                        tracker.handleMetadata(entityID, metadataList);
-                    }
-                });
-
                 // Cancel packet if list empty
                 handler(new PacketHandler() {
                     @Override
@@ -281,7 +279,7 @@ public class EntityPackets {
                 handler(new PacketHandler() {
                     @Override
                     public void handle(PacketWrapper wrapper) throws Exception {
-                        int action = wrapper.get(Type.VAR_INT, 1);
+                        int action = wrapper.getInt(Type.VAR_INT, 1);
                         if (action == 6 || action == 8)
                             wrapper.cancel();
                         if (action == 7) {
@@ -303,7 +301,7 @@ public class EntityPackets {
                 handler(new PacketHandler() {
                     @Override
                     public void handle(PacketWrapper wrapper) throws Exception {
-                        int type = wrapper.get(Type.VAR_INT, 1);
+                        int type = wrapper.getInt(Type.VAR_INT, 1);
                         if (type == 2) {
                             wrapper.passthrough(Type.FLOAT); // 2 - X
                             wrapper.passthrough(Type.FLOAT); // 3 - Y
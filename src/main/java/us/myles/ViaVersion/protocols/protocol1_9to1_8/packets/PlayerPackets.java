@@ -149,7 +149,7 @@ public class PlayerPackets {
                     public void handle(PacketWrapper wrapper) throws Exception {
                         int entityID = wrapper.get(Type.INT, 0);
                         EntityTracker tracker = wrapper.user().get(EntityTracker.class);
-                        tracker.getClientEntityTypes().put(entityID, EntityType.PLAYER);
+                        tracker.setEntityType(entityID, EntityType.PLAYER);
                         tracker.setEntityID(entityID);
                     }
                 });
@@ -29,6 +29,13 @@ public class SpawnPackets {
             return inputValue / 32D;
         }
     };
+    // Same as toNewDouble, reads an INT (fixed point, 1/32) and writes it as a DOUBLE without boxing
+    public static PacketHandler toNewDoubleHandler = new PacketHandler() {
+        @Override
+        public void handle(PacketWrapper wrapper) throws Exception {
+            wrapper.writeDouble(Type.DOUBLE, wrapper.readInt(Type.INT) / 32D);
+        }
+    };
 
     public static void register(Protocol protocol) {
         // Spawn Object Packet
@@ -40,7 +47,7 @@ public class SpawnPackets {
                 create(new ValueCreator() {
                     @Override
                     public void write(PacketWrapper wrapper) throws Exception {
-                        int entityID = wrapper.get(Type.VAR_INT, 0);
+                        int entityID = wrapper.getInt(Type.VAR_INT, 0);
                         EntityTracker tracker = wrapper.user().get(EntityTracker.class);
                         wrapper.write(Type.UUID, tracker.getEntityUUID(entityID)); // 1 - UUID
                     }
@@ -51,16 +58,16 @@ public class SpawnPackets {
                 handler(new PacketHandler() {
                     @Override
                     public void handle(PacketWrapper wrapper) throws Exception {
-                        int entityID = wrapper.get(Type.VAR_INT, 0);
+                        int entityID = wrapper.getInt(Type.VAR_INT, 0);
                         int typeID = wrapper.get(Type.BYTE, 0);
                         EntityTracker tracker = wrapper.user().get(EntityTracker.class);
-                        tracker.getClientEntityTypes().put(entityID, EntityUtil.getTypeFromID(typeID, true));
+                        tracker.setEntityType(entityID, EntityUtil.getTypeFromID(typeID, true));
                     }
                 });
 
-                map(Type.INT, toNewDouble); // 3 - X - Needs to be divide by 32
-                map(Type.INT, toNewDouble); // 4 - Y - Needs to be divide by 32
-                map(Type.INT, toNewDouble); // 5 - Z - Needs to be divide by 32
+                handler(toNewDoubleHandler); // 3 - X - Needs to be divide by 32
+                handler(toNewDoubleHandler); // 4 - Y - Needs to be divide by 32
+                handler(toNewDoubleHandler); // 5 - Z - Needs to be divide by 32
 
                 map(Type.BYTE); // 6 - Pitch
                 map(Type.BYTE); // 7 - Yaw
@@ -71,7 +78,7 @@ public class SpawnPackets {
                 create(new ValueCreator() {
                     @Override
                     public void write(PacketWrapper wrapper) throws Exception {
-                        int data = wrapper.get(Type.INT, 0); // Data (1st Integer)
+                        int data = wrapper.getInt(Type.INT, 0); // Data (1st Integer)
 
                         short vX = 0, vY = 0, vZ = 0;
                         if (data > 0) {
@@ -90,8 +97,8 @@ public class SpawnPackets {
                 handler(new PacketHandler() {
                     @Override
                     public void handle(PacketWrapper wrapper) throws Exception {
-                        final int entityID = wrapper.get(Type.VAR_INT, 0);
-                        final int data = wrapper.get(Type.INT, 0); // Data
+                        final int entityID = wrapper.getInt(Type.VAR_INT, 0);
+                        final int data = wrapper.getInt(Type.INT, 0); // Data
 
                         int typeID = wrapper.get(Type.BYTE, 0);
                         if (EntityUtil.getTypeFromID(typeID, true) == EntityType.SPLASH_POTION) {
@@ -126,15 +133,15 @@ public class SpawnPackets {
                 handler(new PacketHandler() {
                     @Override
                     public void handle(PacketWrapper wrapper) throws Exception {
-                        int entityID = wrapper.get(Type.VAR_INT, 0);
+                        int entityID = wrapper.getInt(Type.VAR_INT, 0);
                         EntityTracker tracker = wrapper.user().get(EntityTracker.class);
-                        tracker.getClientEntityTypes().put(entityID, EntityType.EXPERIENCE_ORB);
+                        tracker.setEntityType(entityID, EntityType.EXPERIENCE_ORB);
                     }
                 });
 
-                map(Type.INT, toNewDouble); // 1 - X - Needs to be divide by 32
-                map(Type.INT, toNewDouble); // 2 - Y - Needs to be divide by 32
-                map(Type.INT, toNewDouble); // 3 - Z - Needs to be divide by 32
+                handler(toNewDoubleHandler); // 1 - X - Needs to be divide by 32
+                handler(toNewDoubleHandler); // 2 - Y - Needs to be divide by 32
+                handler(toNewDoubleHandler); // 3 - Z - Needs to be divide by 32
 
                 map(Type.SHORT); // 4 - Amount to spawn
             }
@@ -151,15 +158,15 @@ public class SpawnPackets {
                     @Override
                     public void handle(PacketWrapper wrapper) throws Exception {
                         // Currently only lightning uses this
-                        int entityID = wrapper.get(Type.VAR_INT, 0);
+                        int entityID = wrapper.getInt(Type.VAR_INT, 0);
                         EntityTracker tracker = wrapper.user().get(EntityTracker.class);
-                        tracker.getClientEntityTypes().put(entityID, EntityType.LIGHTNING);
+                        tracker.setEntityType(entityID, EntityType.LIGHTNING);
                     }
                 });
 
-                map(Type.INT, toNewDouble); // 2 - X - Needs to be divide by 32
-                map(Type.INT, toNewDouble); // 3 - Y - Needs to be divide by 32
-                map(Type.INT, toNewDouble); // 4 - Z - Needs to be divide by 32
+                handler(toNewDoubleHandler); // 2 - X - Needs to be divide by 32
+                handler(toNewDoubleHandler); // 3 - Y - Needs to be divide by 32
+                handler(toNewDoubleHandler); // 4 - Z - Needs to be divide by 32
             }
         });
 
@@ -172,7 +179,7 @@ public class SpawnPackets {
                 create(new ValueCreator() {
                     @Override
                     public void write(PacketWrapper wrapper) throws Exception {
-                        int entityID = wrapper.get(Type.VAR_INT, 0);
+                        int entityID = wrapper.getInt(Type.VAR_INT, 0);
                         EntityTracker tracker = wrapper.user().get(EntityTracker.class);
                         wrapper.write(Type.UUID, tracker.getEntityUUID(entityID)); // 1 - UUID
                     }
@@ -183,16 +190,16 @@ public class SpawnPackets {
                 handler(new PacketHandler() {
                     @Override
                     public void handle(PacketWrapper wrapper) throws Exception {
-                        int entityID = wrapper.get(Type.VAR_INT, 0);
+                        int entityID = wrapper.getInt(Type.VAR_INT, 0);
                         int typeID = wrapper.get(Type.UNSIGNED_BYTE, 0);
                         EntityTracker tracker = wrapper.user().get(EntityTracker.class);
-                        tracker.getClientEntityTypes().put(entityID, EntityUtil.getTypeFromID(typeID, false));
+                        tracker.setEntityType(entityID, EntityUtil.getTypeFromID(typeID, false));
                     }
                 });
 
-                map(Type.INT, toNewDouble); // 3 - X - Needs to be divide by 32
-                map(Type.INT, toNewDouble); // 4 - Y - Needs to be divide by 32
-                map(Type.INT, toNewDouble); // 5 - Z - Needs to be divide by 32
+                handler(toNewDoubleHandler); // 3 - X - Needs to be divide by 32
+                handler(toNewDoubleHandler); // 4 - Y - Needs to be divide by 32
+                handler(toNewDoubleHandler); // 5 - Z - Needs to be divide by 32
 
                 map(Type.BYTE); // 6 - Yaw
                 map(Type.BYTE); // 7 - Pitch
@@ -207,26 +214,17 @@ public class SpawnPackets {
                     @Override
                     public void handle(PacketWrapper wrapper) throws Exception {
                         List<Metadata> metadataList = wrapper.get(Protocol1_9TO1_8.METADATA_LIST, 0);
-                        int entityID = wrapper.get(Type.VAR_INT, 0);
+                        int entityID = wrapper.getInt(Type.VAR_INT, 0);
                         EntityTracker tracker = wrapper.user().get(EntityTracker.class);
-                        if (tracker.getClientEntityTypes().containsKey(entityID)) {
-                            MetadataRewriter.transform(tracker.getClientEntityTypes().get(entityID), metadataList);
+                        EntityType type = tracker.getEntityType(entityID);
+                        if (type != null) {
+                            MetadataRewriter.transform(type, metadataList, tracker.getMetadataHandler(entityID, type));
                         } else {
                             System.out.println("Unable to find entity for metadata, entity ID: " + entityID);
                             metadataList.clear();
                         }
                     }
                 });
-                // Handler for meta data
-                handler(new PacketHandler() {
-                    @Override
-                    public void handle(PacketWrapper wrapper) throws Exception {
-                        List<Metadata> metadataList = wrapper.get(Protocol1_9TO1_8.METADATA_LIST, 0);
-                        int entityID = wrapper.get(Type.VAR_INT, 0);
-                        EntityTracker tracker = wrapper.user().get(EntityTracker.class);
-                        tracker.handleMetadata(entityID, metadataList);
-                    }
-                });
             }
         });
 
@@ -240,9 +238,9 @@ public class SpawnPackets {
                 handler(new PacketHandler() {
                     @Override
                     public void handle(PacketWrapper wrapper) throws Exception {
-                        int entityID = wrapper.get(Type.VAR_INT, 0);
+                        int entityID = wrapper.getInt(Type.VAR_INT, 0);
                         EntityTracker tracker = wrapper.user().get(EntityTracker.class);
-                        tracker.getClientEntityTypes().put(entityID, EntityType.PAINTING);
+                        tracker.setEntityType(entityID, EntityType.PAINTING);
                     }
                 });
 
@@ -250,7 +248,7 @@ public class SpawnPackets {
                 create(new ValueCreator() {
                     @Override
                     public void write(PacketWrapper wrapper) throws Exception {
-                        int entityID = wrapper.get(Type.VAR_INT, 0);
+                        int entityID = wrapper.getInt(Type.VAR_INT, 0);
                         EntityTracker tracker = wrapper.user().get(EntityTracker.class);
                         wrapper.write(Type.UUID, tracker.getEntityUUID(entityID)); // 1 - UUID
                     }
@@ -273,15 +271,15 @@ public class SpawnPackets {
                 handler(new PacketHandler() {
                     @Override
                     public void handle(PacketWrapper wrapper) throws Exception {
-                        int entityID = wrapper.get(Type.VAR_INT, 0);
+                        int entityID = wrapper.getInt(Type.VAR_INT, 0);
                         EntityTracker tracker = wrapper.user().get(EntityTracker.class);
-                        tracker.getClientEntityTypes().put(entityID, EntityType.PLAYER);
+                        tracker.setEntityType(entityID, EntityType.PLAYER);
                     }
                 });
 
-                map(Type.INT, toNewDouble); // 2 - X - Needs to be divide by 32
-                map(Type.INT, toNewDouble); // 3 - Y - Needs to be divide by 32
-                map(Type.INT, toNewDouble); // 4 - Z - Needs to be divide by 32
+                handler(toNewDoubleHandler); // 2 - X - Needs to be divide by 32
+                handler(toNewDoubleHandler); // 3 - Y - Needs to be divide by 32
+                handler(toNewDoubleHandler); // 4 - Z - Needs to be divide by 32
 
                 map(Type.BYTE); // 5 - Yaw
                 map(Type.BYTE); // 6 - Pitch
@@ -311,27 +309,17 @@ public class SpawnPackets {
                     @Override
                     public void handle(PacketWrapper wrapper) throws Exception {
                         List<Metadata> metadataList = wrapper.get(Protocol1_9TO1_8.METADATA_LIST, 0);
-                        int entityID = wrapper.get(Type.VAR_INT, 0);
+                        int entityID = wrapper.getInt(Type.VAR_INT, 0);
                         EntityTracker tracker = wrapper.user().get(EntityTracker.class);
-                        if (tracker.getClientEntityTypes().containsKey(entityID)) {
-                            MetadataRewriter.transform(tracker.getClientEntityTypes().get(entityID), metadataList);
+                        EntityType type = tracker.getEntityType(entityID);
+                        if (type != null) {
+                            MetadataRewriter.transform(type, metadataList, tracker.getMetadataHandler(entityID, type));
                         } else {
                             System.out.println("Unable to find entity for metadata, entity ID: " + entityID);
                             metadataList.clear();
                         }
                     }
                 });
-
-                // Handler for meta data
-                handler(new PacketHandler() {
-                    @Override
-                    public void handle(PacketWrapper wrapper) throws Exception {
-                        List<Metadata> metadataList = wrapper.get(Protocol1_9TO1_8.METADATA_LIST, 0);
-                        int entityID = wrapper.get(Type.VAR_INT, 0);
-                        EntityTracker tracker = wrapper.user().get(EntityTracker.class);
-                        tracker.handleMetadata(entityID, metadataList);
-                    }
-                });
             }
         });
 
@@ -6,8 +6,8 @@ import org.spacehq.opennbt.tag.builtin.StringTag;
 import us.myles.ViaVersion.api.PacketWrapper;
 import us.myles.ViaVersion.api.ViaVersion;
 import us.myles.ViaVersion.api.minecraft.Position;
-import us.myles.ViaVersion.api.minecraft.chunks.Chunk;
 import us.myles.ViaVersion.api.minecraft.item.Item;
+import us.myles.ViaVersion.api.minecraft.nbt.LazyTag;
 import us.myles.ViaVersion.api.protocol.Protocol;
 import us.myles.ViaVersion.api.remapper.PacketHandler;
 import us.myles.ViaVersion.api.remapper.PacketRemapper;
@@ -17,11 +17,12 @@ import us.myles.ViaVersion.packets.State;
 import us.myles.ViaVersion.protocols.protocol1_9to1_8.ArmorType;
 import us.myles.ViaVersion.protocols.protocol1_9to1_8.ItemRewriter;
 import us.myles.ViaVersion.protocols.protocol1_9to1_8.Protocol1_9TO1_8;
+import us.myles.ViaVersion.protocols.protocol1_9to1_8.chunks.RawChunk;
 import us.myles.ViaVersion.protocols.protocol1_9to1_8.sounds.Effect;
 import us.myles.ViaVersion.protocols.protocol1_9to1_8.sounds.SoundEffect;
 import us.myles.ViaVersion.protocols.protocol1_9to1_8.storage.ClientChunks;
 import us.myles.ViaVersion.protocols.protocol1_9to1_8.storage.EntityTracker;
-import us.myles.ViaVersion.protocols.protocol1_9to1_8.types.ChunkType;
+import us.myles.ViaVersion.protocols.protocol1_9to1_8.types.RawChunkType;
 
 public class WorldPackets {
     public static void register(Protocol protocol) {
@@ -74,25 +75,23 @@ public class WorldPackets {
         protocol.registerOutgoing(State.PLAY, 0x29, 0x19, new PacketRemapper() {
             @Override
             public void registerMap() {
-                map(Type.STRING); // 0 - Sound Name
+                // 0 - Sound Name
                 // 1 - Sound Category ID
                 // Everything else get's written through
 
                 handler(new PacketHandler() {
                     @Override
                     public void handle(PacketWrapper wrapper) throws Exception {
-                        String name = wrapper.get(Type.STRING, 0);
-
-                        SoundEffect effect = SoundEffect.getByName(name);
-                        int catid = 0;
-                        String newname = name;
-                        if (effect != null) {
-                            catid = effect.getCategory().getId();
-                            newname = effect.getNewName();
+                        SoundEffect effect = wrapper.read(Protocol1_9TO1_8.SOUND_EFFECT);
+                        if (effect == null) {
+                            // Unknown sounds keep their name
+                            wrapper.passthrough(Type.STRING);
+                            wrapper.writeInt(Type.VAR_INT, 0); // Write Category ID
+                            return;
                         }
-                        wrapper.set(Type.STRING, 0, newname);
-                        wrapper.write(Type.VAR_INT, catid); // Write Category ID
-                        if (effect != null && effect.isBreaksound()) {
+                        wrapper.write(Protocol1_9TO1_8.SOUND_EFFECT, effect);
+                        wrapper.writeInt(Type.VAR_INT, effect.getCategory().getId()); // Write Category ID
+                        if (effect.isBreaksound()) {
                             EntityTracker tracker = wrapper.user().get(EntityTracker.class);
                             int x = wrapper.passthrough(Type.INT); //Position X
                             int y = wrapper.passthrough(Type.INT); //Position Y
@@ -115,7 +114,7 @@ public class WorldPackets {
                     @Override
                     public void handle(PacketWrapper wrapper) throws Exception {
                         ClientChunks clientChunks = wrapper.user().get(ClientChunks.class);
-                        Chunk chunk = wrapper.passthrough(new ChunkType(clientChunks));
+                        RawChunk chunk = wrapper.passthrough(new RawChunkType(clientChunks));
                         if (chunk.isUnloadPacket()) {
                             PacketWrapper unload = wrapper.create(0x1D);
                             unload.write(Type.INT, chunk.getX());
@@ -134,13 +133,14 @@ public class WorldPackets {
             public void registerMap() {
                 map(Type.POSITION); // 0 - Block Position
                 map(Type.UNSIGNED_BYTE); // 1 - Action
-                map(Type.NBT); // 2 - NBT (Might not be present)
+                map(Type.LAZY_NBT); // 2 - NBT (Might not be present), only parsed for spawners
                 handler(new PacketHandler() {
                     @Override
                     public void handle(PacketWrapper wrapper) throws Exception {
                         int action = wrapper.get(Type.UNSIGNED_BYTE, 0);
                         if (action == 1) { // Update Spawner
-                            CompoundTag tag = wrapper.get(Type.NBT, 0);
+                            LazyTag lazyTag = wrapper.get(Type.LAZY_NBT, 0);
+                            CompoundTag tag = lazyTag == null ? null : lazyTag.getTag();
                             if (tag != null) {
                                 if (tag.contains("EntityId")) {
                                     String entity = (String) tag.get("EntityId").getValue();
@@ -1,6 +1,11 @@
 package us.myles.ViaVersion.protocols.protocol1_9to1_8.sounds;
 
+import com.google.common.base.Charsets;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import lombok.AccessLevel;
 import lombok.Getter;
+import us.myles.ViaVersion.api.type.Type;
 
 import java.util.HashMap;
 
@@ -258,21 +263,35 @@ public enum SoundEffect {
     private final String newName;
     private final SoundCategory category;
     private final boolean breaksound;
+    @Getter(AccessLevel.NONE)
+    private final byte[] encodedNewName;
 
     private static HashMap<String, SoundEffect> effects;
+    /**
+     * Effects by the hash of their name, open addressing so the name of a packet can be looked up as bytes
+     */
+    private static final SoundEffect[] TABLE;
 
     static {
         effects = new HashMap<>();
         for (SoundEffect e : SoundEffect.values()) {
-            effects.put(e.getName(), e);
+            effects.put(e.getName().toLowerCase(), e);
+        }
+
+        TABLE = new SoundEffect[Integer.highestOneBit(values().length) * 4];
+        int mask = TABLE.length - 1;
+        for (SoundEffect e : values()) {
+            byte[] name = e.getName().getBytes(Charsets.US_ASCII);
+            int slot = hash(Unpooled.wrappedBuffer(name), 0, name.length) & mask;
+            while (TABLE[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            TABLE[slot] = e;
         }
     }
 
     SoundEffect(String name, String newname, SoundCategory cat) {
-        this.category = cat;
-        this.newName = newname;
-        this.name = name;
-        this.breaksound = name.startsWith("dig.");
+        this(name, newname, cat, false);
     }
 
     SoundEffect(String name, String newname, SoundCategory cat, boolean shouldIgnore) {
@@ -280,13 +299,70 @@ public enum SoundEffect {
         this.newName = newname;
         this.name = name;
         this.breaksound = name.startsWith("dig.") || shouldIgnore;
+
+        ByteBuf buffer = Unpooled.buffer();
+        try {
+            Type.STRING.write(buffer, newname);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Failed to encode sound " + newname, e);
+        }
+        this.encodedNewName = new byte[buffer.readableBytes()];
+        buffer.readBytes(encodedNewName);
+    }
+
+    /**
+     * Write the 1.9 name of this sound as a string
+     *
+     * @param buffer The buffer to write to
+     */
+    public void writeNewName(ByteBuf buffer) {
+        buffer.writeBytes(encodedNewName);
     }
 
     public static SoundEffect getByName(String name) {
-        name = name.toLowerCase();
-        if (effects.containsKey(name))
-            return effects.get(name);
+        return effects.get(name.toLowerCase());
+    }
+
+    /**
+     * Get a sound by its UTF-8 encoded name, ignoring case like {@link #getByName(String)}
+     *
+     * @param buffer The buffer holding the name
+     * @param index  The index of the name
+     * @param length The length of the name in bytes
+     * @return The sound, null if there is no sound with this name
+     */
+    public static SoundEffect getByName(ByteBuf buffer, int index, int length) {
+        int mask = TABLE.length - 1;
+        int slot = hash(buffer, index, length) & mask;
+        SoundEffect effect;
+        while ((effect = TABLE[slot]) != null) {
+            if (nameEquals(effect.getName(), buffer, index, length)) {
+                return effect;
+            }
+            slot = (slot + 1) & mask;
+        }
         return null;
     }
 
+    private static boolean nameEquals(String name, ByteBuf buffer, int index, int length) {
+        // Names are ASCII, so a byte is a character
+        if (name.length() != length) return false;
+        for (int i = 0; i < length; i++) {
+            if (toLowerCase((byte) name.charAt(i)) != toLowerCase(buffer.getByte(index + i))) return false;
+        }
+        return true;
+    }
+
+    private static int hash(ByteBuf buffer, int index, int length) {
+        int hash = 0x811C9DC5;
+        for (int i = 0; i < length; i++) {
+            hash = (hash ^ toLowerCase(buffer.getByte(index + i))) * 0x01000193;
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int toLowerCase(byte b) {
+        return b >= 'A' && b <= 'Z' ? b + ('a' - 'A') : b & 0xFF;
+    }
+
 }
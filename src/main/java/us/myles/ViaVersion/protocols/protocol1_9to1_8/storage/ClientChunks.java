@@ -1,15 +1,21 @@
 package us.myles.ViaVersion.protocols.protocol1_9to1_8.storage;
 
 import com.google.common.collect.Lists;
-import com.google.common.collect.Sets;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import lombok.Getter;
 import org.bukkit.Bukkit;
 import us.myles.ViaVersion.api.data.StoredObject;
 import us.myles.ViaVersion.api.data.UserConnection;
+import us.myles.ViaVersion.api.protocol.OutgoingTask;
+import us.myles.ViaVersion.api.type.Type;
+import us.myles.ViaVersion.protocols.protocol1_9to1_8.chunks.RawChunk;
+import us.myles.ViaVersion.protocols.protocol1_9to1_8.types.RawChunkType;
+import us.myles.ViaVersion.util.LongHashSet;
 import us.myles.ViaVersion.util.ReflectionUtil;
 
+import java.util.Collections;
 import java.util.List;
-import java.util.Set;
 import java.util.logging.Level;
 
 @Getter
@@ -17,18 +23,20 @@ public class ClientChunks extends StoredObject {
     // Reflection
     private static ReflectionUtil.ClassReflection mapChunkBulkRef;
     private static ReflectionUtil.ClassReflection mapChunkRef;
+    private static ReflectionUtil.ClassReflection chunkMapRef;
 
     static {
         try {
             mapChunkBulkRef = new ReflectionUtil.ClassReflection(ReflectionUtil.nms("PacketPlayOutMapChunkBulk"));
             mapChunkRef = new ReflectionUtil.ClassReflection(ReflectionUtil.nms("PacketPlayOutMapChunk"));
+            chunkMapRef = new ReflectionUtil.ClassReflection(ReflectionUtil.nms("PacketPlayOutMapChunk$ChunkMap"));
         } catch (Exception e) {
             Bukkit.getLogger().log(Level.WARNING, "Failed to initialise chunk reflection", e);
         }
     }
 
-    private final Set<Long> loadedChunks = Sets.newConcurrentHashSet();
-    private final Set<Long> bulkChunks = Sets.newConcurrentHashSet();
+    private final LongHashSet loadedChunks = new LongHashSet();
+    private final LongHashSet bulkChunks = new LongHashSet();
 
     public ClientChunks(UserConnection user) {
         super(user);
@@ -38,22 +46,38 @@ public class ClientChunks extends StoredObject {
         return ((long) msw << 32) + lsw - -2147483648L;
     }
 
+    /**
+     * Split a chunk bulk into chunk packets, which are translated like any other chunk packet.
+     * The chunks are marked as bulk chunks by a task in front of them, so earlier chunk packets still see the old state.
+     *
+     * @param packet The chunk bulk packet
+     * @return The task marking the chunks, followed by the chunk packets
+     */
     public List<Object> transformMapChunkBulk(Object packet) {
         List<Object> list = Lists.newArrayList();
         try {
             int[] xcoords = mapChunkBulkRef.getFieldValue("a", packet, int[].class);
             int[] zcoords = mapChunkBulkRef.getFieldValue("b", packet, int[].class);
             Object[] chunkMaps = mapChunkBulkRef.getFieldValue("c", packet, Object[].class);
+            final long[] chunks = new long[chunkMaps.length];
+            for (int i = 0; i < chunkMaps.length; i++) {
+                chunks[i] = toLong(xcoords[i], zcoords[i]);
+            }
+            list.add(new OutgoingTask() {
+                @Override
+                public List<ByteBuf> run(UserConnection info) {
+                    for (long chunk : chunks) {
+                        bulkChunks.add(chunk); // Store for later
+                    }
+                    return Collections.emptyList();
+                }
+            });
             for (int i = 0; i < chunkMaps.length; i++) {
-                int x = xcoords[i];
-                int z = zcoords[i];
-                Object chunkMap = chunkMaps[i];
                 Object chunkPacket = mapChunkRef.newInstance();
-                mapChunkRef.setFieldValue("a", chunkPacket, x);
-                mapChunkRef.setFieldValue("b", chunkPacket, z);
-                mapChunkRef.setFieldValue("c", chunkPacket, chunkMap);
+                mapChunkRef.setFieldValue("a", chunkPacket, xcoords[i]);
+                mapChunkRef.setFieldValue("b", chunkPacket, zcoords[i]);
+                mapChunkRef.setFieldValue("c", chunkPacket, chunkMaps[i]);
                 mapChunkRef.setFieldValue("d", chunkPacket, true); // Chunk bulk chunks are always ground-up
-                bulkChunks.add(toLong(x, z)); // Store for later
                 list.add(chunkPacket);
             }
         } catch (Exception e) {
@@ -61,4 +85,61 @@ public class ClientChunks extends StoredObject {
         }
         return list;
     }
+
+    /**
+     * Write the chunks of a chunk bulk as 1.9 chunk packets, instead of creating a chunk packet for each of them.
+     * They're written by a task, so the chunks are only marked as loaded once the packets in front of them are translated.
+     *
+     * @param packet The chunk bulk packet
+     * @return The task writing the chunk packets
+     */
+    public List<Object> writeMapChunkBulk(Object packet) {
+        try {
+            final int[] xcoords = mapChunkBulkRef.getFieldValue("a", packet, int[].class);
+            final int[] zcoords = mapChunkBulkRef.getFieldValue("b", packet, int[].class);
+            Object[] chunkMaps = mapChunkBulkRef.getFieldValue("c", packet, Object[].class);
+            final byte[][] data = new byte[chunkMaps.length][];
+            final int[] bitmasks = new int[chunkMaps.length];
+            for (int i = 0; i < chunkMaps.length; i++) {
+                data[i] = chunkMapRef.getFieldValue("a", chunkMaps[i], byte[].class);
+                bitmasks[i] = chunkMapRef.getFieldValue("b", chunkMaps[i], Integer.class);
+            }
+            return Lists.<Object>newArrayList(new OutgoingTask() {
+                @Override
+                public List<ByteBuf> run(UserConnection info) {
+                    return writeChunks(xcoords, zcoords, data, bitmasks);
+                }
+            });
+        } catch (Exception e) {
+            Bukkit.getLogger().log(Level.WARNING, "Failed to write chunk bulk", e);
+        }
+        return Lists.newArrayList();
+    }
+
+    private List<ByteBuf> writeChunks(int[] xcoords, int[] zcoords, byte[][] data, int[] bitmasks) {
+        List<ByteBuf> list = Lists.newArrayList();
+        try {
+            RawChunkType type = new RawChunkType(this);
+            for (int i = 0; i < data.length; i++) {
+                int x = xcoords[i];
+                int z = zcoords[i];
+                loadedChunks.add(toLong(x, z)); // Chunk bulk chunks are never unloads, so we don't need bulkChunks
+                // Chunk bulk chunks are always ground-up
+                RawChunk chunk = RawChunk.of(x, z, true, bitmasks[i] & 0xFFFF, Unpooled.wrappedBuffer(data[i]));
+
+                ByteBuf output = getUser().getChannel().alloc().ioBuffer();
+                try {
+                    Type.PRIMITIVE_VAR_INT.writePrimitive(output, 0x20); // Chunk Data packet ID
+                    type.write(output, this, chunk);
+                } catch (Exception e) {
+                    output.release();
+                    throw e;
+                }
+                list.add(output);
+            }
+        } catch (Exception e) {
+            Bukkit.getLogger().log(Level.WARNING, "Failed to write chunk bulk", e);
+        }
+        return list;
+    }
 }
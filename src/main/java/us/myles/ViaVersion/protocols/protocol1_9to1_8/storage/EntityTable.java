@@ -0,0 +1,245 @@
+package us.myles.ViaVersion.protocols.protocol1_9to1_8.storage;
+
+import org.bukkit.entity.EntityType;
+import us.myles.ViaVersion.api.boss.BossBar;
+
+import java.util.UUID;
+
+/**
+ * The state of the entities a client knows about, keyed by entity id.
+ * All state is kept in arrays indexed by the slot of the entity (open addressing), so looking up an entity
+ * doesn't box its id and removing an entity removes all of its state at once.
+ */
+public class EntityTable {
+    private static final int INITIAL_CAPACITY = 64;
+    // Flags
+    private static final byte USED = 0x01;
+    private static final byte VEHICLE = 0x02;
+    private static final byte VALID_BLOCKING = 0x04;
+    private static final byte HOLOGRAM = 0x08;
+
+    private int[] ids;
+    private byte[] flags;
+    private EntityType[] types;
+    private UUID[] uuids;
+    private int[] vehicles;
+    private BossBar[] bossBars;
+    private int size;
+
+    public EntityTable() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    public EntityType getType(int id) {
+        int slot = find(id);
+        return slot == -1 ? null : types[slot];
+    }
+
+    public void setType(int id, EntityType type) {
+        int slot = slot(id); // Can resize the arrays
+        types[slot] = type;
+    }
+
+    public UUID getUUID(int id) {
+        int slot = find(id);
+        return slot == -1 ? null : uuids[slot];
+    }
+
+    public void setUUID(int id, UUID uuid) {
+        int slot = slot(id);
+        uuids[slot] = uuid;
+    }
+
+    public boolean hasVehicle(int id) {
+        return hasFlag(id, VEHICLE);
+    }
+
+    /**
+     * Get the vehicle an entity is in
+     *
+     * @param id The entity id
+     * @return The vehicle id, only valid if {@link #hasVehicle(int)}
+     */
+    public int getVehicle(int id) {
+        int slot = find(id);
+        return slot == -1 ? 0 : vehicles[slot];
+    }
+
+    public void setVehicle(int id, int vehicle) {
+        int slot = slot(id);
+        vehicles[slot] = vehicle;
+        flags[slot] |= VEHICLE;
+    }
+
+    public void removeVehicle(int id) {
+        setFlag(id, VEHICLE, false);
+    }
+
+    public boolean isValidBlocking(int id) {
+        return hasFlag(id, VALID_BLOCKING);
+    }
+
+    public void setValidBlocking(int id, boolean validBlocking) {
+        setFlag(id, VALID_BLOCKING, validBlocking);
+    }
+
+    public boolean isHologram(int id) {
+        return hasFlag(id, HOLOGRAM);
+    }
+
+    public void setHologram(int id, boolean hologram) {
+        setFlag(id, HOLOGRAM, hologram);
+    }
+
+    public BossBar getBossBar(int id) {
+        int slot = find(id);
+        return slot == -1 ? null : bossBars[slot];
+    }
+
+    public void setBossBar(int id, BossBar bossBar) {
+        int slot = slot(id);
+        bossBars[slot] = bossBar;
+    }
+
+    /**
+     * Remove all state of an entity
+     *
+     * @param id The entity id
+     * @return The boss bar of the entity, null if it has none
+     */
+    public BossBar remove(int id) {
+        int slot = find(id);
+        if (slot == -1) return null;
+        BossBar bossBar = bossBars[slot];
+        removeSlot(slot);
+        return bossBar;
+    }
+
+    /**
+     * Get the amount of entities with state
+     *
+     * @return The amount of entities
+     */
+    public int size() {
+        return size;
+    }
+
+    private boolean hasFlag(int id, byte flag) {
+        int slot = find(id);
+        return slot != -1 && (flags[slot] & flag) != 0;
+    }
+
+    private void setFlag(int id, byte flag, boolean value) {
+        if (value) {
+            int slot = slot(id);
+            flags[slot] |= flag;
+            return;
+        }
+        int slot = find(id);
+        if (slot == -1) return;
+        flags[slot] &= ~flag;
+        // Don't keep entities without any state around
+        if (flags[slot] == USED && types[slot] == null && uuids[slot] == null && bossBars[slot] == null) {
+            removeSlot(slot);
+        }
+    }
+
+    private int find(int id) {
+        int mask = ids.length - 1;
+        int slot = hash(id) & mask;
+        while ((flags[slot] & USED) != 0) {
+            if (ids[slot] == id) return slot;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Get the slot of an entity, adds the entity if it isn't there yet
+     */
+    private int slot(int id) {
+        int mask = ids.length - 1;
+        int slot = hash(id) & mask;
+        while ((flags[slot] & USED) != 0) {
+            if (ids[slot] == id) return slot;
+            slot = (slot + 1) & mask;
+        }
+        // Keep at most half the slots in use
+        if ((size + 1) * 2 > ids.length) {
+            resize(ids.length * 2);
+            return slot(id);
+        }
+        ids[slot] = id;
+        flags[slot] = USED;
+        size++;
+        return slot;
+    }
+
+    private void removeSlot(int slot) {
+        int mask = ids.length - 1;
+        // Shift the following entities back, so lookups don't stop at the removed slot
+        int next = (slot + 1) & mask;
+        while ((flags[next] & USED) != 0) {
+            int wanted = hash(ids[next]) & mask;
+            // Only move entities whose wanted slot isn't between the gap and their current slot
+            if (((next - wanted) & mask) >= ((next - slot) & mask)) {
+                move(next, slot);
+                slot = next;
+            }
+            next = (next + 1) & mask;
+        }
+        flags[slot] = 0;
+        types[slot] = null;
+        uuids[slot] = null;
+        bossBars[slot] = null;
+        size--;
+    }
+
+    private void move(int from, int to) {
+        ids[to] = ids[from];
+        flags[to] = flags[from];
+        types[to] = types[from];
+        uuids[to] = uuids[from];
+        vehicles[to] = vehicles[from];
+        bossBars[to] = bossBars[from];
+    }
+
+    private void resize(int capacity) {
+        int[] oldIds = ids;
+        byte[] oldFlags = flags;
+        EntityType[] oldTypes = types;
+        UUID[] oldUuids = uuids;
+        int[] oldVehicles = vehicles;
+        BossBar[] oldBossBars = bossBars;
+        allocate(capacity);
+
+        int mask = capacity - 1;
+        for (int i = 0; i < oldIds.length; i++) {
+            if ((oldFlags[i] & USED) == 0) continue;
+            int slot = hash(oldIds[i]) & mask;
+            while ((flags[slot] & USED) != 0) {
+                slot = (slot + 1) & mask;
+            }
+            ids[slot] = oldIds[i];
+            flags[slot] = oldFlags[i];
+            types[slot] = oldTypes[i];
+            uuids[slot] = oldUuids[i];
+            vehicles[slot] = oldVehicles[i];
+            bossBars[slot] = oldBossBars[i];
+        }
+    }
+
+    private void allocate(int capacity) {
+        ids = new int[capacity];
+        flags = new byte[capacity];
+        types = new EntityType[capacity];
+        uuids = new UUID[capacity];
+        vehicles = new int[capacity];
+        bossBars = new BossBar[capacity];
+    }
+
+    private static int hash(int id) {
+        int hash = id * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
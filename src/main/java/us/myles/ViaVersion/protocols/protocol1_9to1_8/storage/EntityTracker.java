@@ -3,6 +3,7 @@ package us.myles.ViaVersion.protocols.protocol1_9to1_8.storage;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import io.netty.buffer.ByteBuf;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import org.bukkit.Bukkit;
@@ -22,18 +23,21 @@ import us.myles.ViaVersion.api.minecraft.item.Item;
 import us.myles.ViaVersion.api.minecraft.metadata.Metadata;
 import us.myles.ViaVersion.api.type.Type;
 import us.myles.ViaVersion.protocols.base.ProtocolInfo;
+import us.myles.ViaVersion.protocols.protocol1_9to1_8.metadata.MetadataHandler;
+import us.myles.ViaVersion.util.HashUtil;
 
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
 @Getter
 public class EntityTracker extends StoredObject {
-    private final Map<Integer, UUID> uuidMap = new HashMap<>();
-    private final Map<Integer, EntityType> clientEntityTypes = new HashMap<>();
-    private final Map<Integer, Integer> vehicleMap = new HashMap<>();
-    private final Map<Integer, BossBar> bossBarMap = new HashMap<>();
-    private final Set<Integer> validBlocking = new HashSet<>();
-    private final Set<Integer> knownHolograms = new HashSet<>();
+    @Getter(AccessLevel.NONE)
+    private final EntityTable entities = new EntityTable();
+    // Derive entity UUIDs from the id instead of storing random ones
+    private final boolean deterministicUUIDs = ViaVersion.getConfig().isDeterministicEntityUUIDs();
+    @Getter(AccessLevel.NONE)
+    private final long uuidSalt = ThreadLocalRandom.current().nextLong();
     private final Cache<Position, Material> blockInteractions = CacheBuilder.newBuilder().maximumSize(10).expireAfterAccess(250, TimeUnit.MILLISECONDS).build();
     @Setter
     private boolean blocking = false;
@@ -44,19 +48,80 @@ public class EntityTracker extends StoredObject {
     @Setter
     private int entityID;
     private boolean teamExists = false;
+    @Getter(AccessLevel.NONE)
+    private final MetadataTracker metadataTracker = new MetadataTracker();
 
     public EntityTracker(UserConnection user) {
         super(user);
     }
 
     public UUID getEntityUUID(int id) {
-        if (uuidMap.containsKey(id)) {
-            return uuidMap.get(id);
-        } else {
-            UUID uuid = UUID.randomUUID();
-            uuidMap.put(id, uuid);
-            return uuid;
+        if (deterministicUUIDs) {
+            return createEntityUUID(id);
+        }
+        UUID uuid = entities.getUUID(id);
+        if (uuid == null) {
+            uuid = UUID.randomUUID();
+            entities.setUUID(id, uuid);
         }
+        return uuid;
+    }
+
+    /**
+     * Create the UUID of an entity from its id, this is the same for every call with the same id on this connection.
+     *
+     * @param id The entity id
+     * @return A version 4 UUID
+     */
+    private UUID createEntityUUID(int id) {
+        long most = HashUtil.mix(uuidSalt ^ id);
+        long least = HashUtil.mix(most ^ uuidSalt * 0x9E3779B97F4A7C15L);
+        // Mark as random UUID like UUID#randomUUID
+        most = (most & ~0xF000L) | 0x4000L;
+        least = (least & ~(0x3L << 62)) | (0x2L << 62);
+        return new UUID(most, least);
+    }
+
+    /**
+     * Get the type of an entity
+     *
+     * @param id The entity id
+     * @return The type, null if the entity isn't known
+     */
+    public EntityType getEntityType(int id) {
+        return entities.getType(id);
+    }
+
+    public void setEntityType(int id, EntityType type) {
+        entities.setType(id, type);
+    }
+
+    public boolean hasVehicle(int passenger) {
+        return entities.hasVehicle(passenger);
+    }
+
+    /**
+     * Remove the vehicle of an entity
+     *
+     * @param passenger The entity id
+     * @return The vehicle the entity was in, only valid if {@link #hasVehicle(int)}
+     */
+    public int removeVehicle(int passenger) {
+        int vehicle = entities.getVehicle(passenger);
+        entities.removeVehicle(passenger);
+        return vehicle;
+    }
+
+    public void setVehicle(int passenger, int vehicle) {
+        entities.setVehicle(passenger, vehicle);
+    }
+
+    public void setValidBlocking(int entityID, boolean validBlocking) {
+        entities.setValidBlocking(entityID, validBlocking);
+    }
+
+    public boolean isKnownHologram(int entityID) {
+        return entities.isHologram(entityID);
     }
 
     public void setSecondHand(Item item) {
@@ -75,14 +140,8 @@ public class EntityTracker extends StoredObject {
         }
     }
 
-    public void removeEntity(Integer entityID) {
-        clientEntityTypes.remove(entityID);
-        vehicleMap.remove(entityID);
-        uuidMap.remove(entityID);
-        validBlocking.remove(entityID);
-        knownHolograms.remove(entityID);
-
-        BossBar bar = bossBarMap.remove(entityID);
+    public void removeEntity(int entityID) {
+        BossBar bar = entities.remove(entityID);
         if (bar != null) {
             bar.hide();
         }
@@ -106,101 +165,31 @@ public class EntityTracker extends StoredObject {
         blockInteractions.put(p, Material.AIR);
     }
 
-    public void handleMetadata(int entityID, List<Metadata> metadataList) {
-        if (!clientEntityTypes.containsKey(entityID)) return;
+    /**
+     * Get the handler which applies the metadata of an entity (shields, holograms and boss bars) while it's rewritten.
+     * The handler is reused, it's only valid until this is called again.
+     *
+     * @param entityID The entity id
+     * @param type     The entity type
+     * @return The handler
+     */
+    public MetadataHandler getMetadataHandler(int entityID, EntityType type) {
+        metadataTracker.reset(entityID, type);
+        return metadataTracker;
+    }
 
-        EntityType type = clientEntityTypes.get(entityID);
-        for (Metadata metadata : new ArrayList<>(metadataList)) {
-            // Fix: wither (crash fix)
-            if (type == EntityType.WITHER) {
-                if (metadata.getId() == 10) {
-                    metadataList.remove(metadata);
-                    //metadataList.add(new Metadata(10, NewType.Byte.getTypeID(), Type.BYTE, 0));
-                }
-            }
-            // Fix: enderdragon (crash fix)
-            if (type == EntityType.ENDER_DRAGON) {
-                if (metadata.getId() == 11) {
-                    metadataList.remove(metadata);
-                    //   metadataList.add(new Metadata(11, NewType.Byte.getTypeID(), Type.VAR_INT, 0));
-                }
-            }
+    public void handleMetadata(int entityID, List<Metadata> metadataList) {
+        EntityType type = entities.getType(entityID);
+        if (type == null) return;
 
-            if (type == EntityType.PLAYER) {
-                if (metadata.getId() == 0) {
-                    // Byte
-                    byte data = (byte) metadata.getValue();
-                    if (entityID != getEntityID() && ((ViaVersionPlugin) ViaVersion.getInstance()).isShieldBlocking()) {
-                        if ((data & 0x10) == 0x10) {
-                            if (validBlocking.contains(entityID)) {
-                                Item shield = new Item((short) 442, (byte) 1, (short) 0, null);
-                                setSecondHand(entityID, shield);
-                            }
-                        } else {
-                            setSecondHand(entityID, null);
-                        }
-                    }
-                }
-            }
-            if (type == EntityType.ARMOR_STAND && ((ViaVersionPlugin) ViaVersion.getInstance()).isHologramPatch()) {
-                if (metadata.getId() == 0 && getMetaByIndex(metadataList, 10) != null) {
-                    Metadata meta = getMetaByIndex(metadataList, 10); //Only happens if the armorstand is small
-                    byte data = (byte) metadata.getValue();
-                    // Check invisible | Check small | Check if custom name is empty | Check if custom name visible is true
-                    if ((data & 0x20) == 0x20 && ((byte) meta.getValue() & 0x01) == 0x01
-                            && ((String) getMetaByIndex(metadataList, 2).getValue()).length() != 0 && (boolean) getMetaByIndex(metadataList, 3).getValue()) {
-                        if (!knownHolograms.contains(entityID)) {
-                            knownHolograms.add(entityID);
-                            try {
-                                // Send movement
-                                ByteBuf buf = getUser().getChannel().alloc().buffer();
-                                Type.VAR_INT.write(buf, 0x25); // Relative Move Packet
-                                Type.VAR_INT.write(buf, entityID);
-                                buf.writeShort(0);
-                                buf.writeShort((short) (128D * (((ViaVersionPlugin) ViaVersion.getInstance()).getHologramYOffset() * 32D)));
-                                buf.writeShort(0);
-                                buf.writeBoolean(true);
-                                getUser().sendRawPacket(buf, false);
-                            } catch (Exception ignored) {
-                            }
-                        }
-                    }
-                }
-            }
-            Player player = Bukkit.getPlayer(getUser().get(ProtocolInfo.class).getUuid());
-            // Boss bar
-            if (((ViaVersionPlugin) ViaVersion.getInstance()).isBossbarPatch()) {
-                if (type == EntityType.ENDER_DRAGON || type == EntityType.WITHER) {
-                    if (metadata.getId() == 2) {
-                        BossBar bar = bossBarMap.get(entityID);
-                        String title = (String) metadata.getValue();
-                        title = title.isEmpty() ? (type == EntityType.ENDER_DRAGON ? "Ender Dragon" : "Wither") : title;
-                        if (bar == null) {
-                            bar = ViaVersion.getInstance().createBossBar(title, BossColor.PINK, BossStyle.SOLID);
-                            bossBarMap.put(entityID, bar);
-                            bar.addPlayer(player);
-                            bar.show();
-                        } else {
-                            bar.setTitle(title);
-                        }
-                    } else if (metadata.getId() == 6 && !((ViaVersionPlugin) ViaVersion.getInstance()).isBossbarAntiflicker()) { // If anti flicker is enabled, don't update health
-                        BossBar bar = bossBarMap.get(entityID);
-                        // Make health range between 0 and 1
-                        float maxHealth = type == EntityType.ENDER_DRAGON ? 200.0f : 300.0f;
-                        float health = Math.max(0.0f, Math.min(((float) metadata.getValue()) / maxHealth, 1.0f));
-                        if (bar == null) {
-                            String title = type == EntityType.ENDER_DRAGON ? "Ender Dragon" : "Wither";
-                            bar = ViaVersion.getInstance().createBossBar(title, health, BossColor.PINK, BossStyle.SOLID);
-                            bossBarMap.put(entityID, bar);
-                            bar.addPlayer(player);
-                            bar.show();
-                        } else {
-                            bar.setHealth(health);
-                        }
-                    }
-                }
+        MetadataHandler handler = getMetadataHandler(entityID, type);
+        Iterator<Metadata> it = metadataList.iterator();
+        while (it.hasNext()) {
+            if (!handler.handle(it.next())) {
+                it.remove();
             }
         }
+        handler.finish();
     }
 
     public Metadata getMetaByIndex(List<Metadata> list, int index) {
@@ -239,4 +228,135 @@ public class EntityTracker extends StoredObject {
             e.printStackTrace();
         }
     }
+
+    /**
+     * Applies the metadata of a single entity, the config is read once per metadata list.
+     */
+    private class MetadataTracker implements MetadataHandler {
+        private int entityID;
+        private EntityType type;
+        private ViaVersionPlugin plugin;
+        private boolean shieldBlocking;
+        private boolean hologramPatch;
+        private boolean bossbarPatch;
+        private boolean bossbarAntiflicker;
+        // Armor stand values, a hologram is only known once the list is complete
+        private Byte status;
+        private Byte standInfo;
+        private String name;
+        private Boolean nameVisible;
+
+        public void reset(int entityID, EntityType type) {
+            this.entityID = entityID;
+            this.type = type;
+            this.plugin = (ViaVersionPlugin) ViaVersion.getInstance();
+            this.shieldBlocking = entityID != getEntityID() && plugin.isShieldBlocking();
+            this.hologramPatch = plugin.isHologramPatch();
+            this.bossbarPatch = plugin.isBossbarPatch();
+            this.bossbarAntiflicker = plugin.isBossbarAntiflicker();
+            this.status = null;
+            this.standInfo = null;
+            this.name = null;
+            this.nameVisible = null;
+        }
+
+        @Override
+        public boolean handle(Metadata metadata) {
+            // Fix: wither (crash fix)
+            if (type == EntityType.WITHER && metadata.getId() == 10) {
+                return false;
+            }
+            // Fix: enderdragon (crash fix)
+            if (type == EntityType.ENDER_DRAGON && metadata.getId() == 11) {
+                return false;
+            }
+
+            if (type == EntityType.PLAYER && metadata.getId() == 0 && shieldBlocking) {
+                // Byte
+                byte data = (byte) metadata.getValue();
+                if ((data & 0x10) == 0x10) {
+                    if (entities.isValidBlocking(entityID)) {
+                        Item shield = new Item((short) 442, (byte) 1, (short) 0, null);
+                        setSecondHand(entityID, shield);
+                    }
+                } else {
+                    setSecondHand(entityID, null);
+                }
+            }
+            if (type == EntityType.ARMOR_STAND && hologramPatch) {
+                switch (metadata.getId()) {
+                    case 0:
+                        status = (Byte) metadata.getValue();
+                        break;
+                    case 2:
+                        name = (String) metadata.getValue();
+                        break;
+                    case 3:
+                        nameVisible = (Boolean) metadata.getValue();
+                        break;
+                    case 10:
+                        standInfo = (Byte) metadata.getValue(); //Only happens if the armorstand is small
+                        break;
+                }
+            }
+            // Boss bar
+            if (bossbarPatch && (type == EntityType.ENDER_DRAGON || type == EntityType.WITHER)) {
+                if (metadata.getId() == 2) {
+                    BossBar bar = entities.getBossBar(entityID);
+                    String title = (String) metadata.getValue();
+                    title = title.isEmpty() ? (type == EntityType.ENDER_DRAGON ? "Ender Dragon" : "Wither") : title;
+                    if (bar == null) {
+                        bar = ViaVersion.getInstance().createBossBar(title, BossColor.PINK, BossStyle.SOLID);
+                        entities.setBossBar(entityID, bar);
+                        bar.addPlayer(getPlayer());
+                        bar.show();
+                    } else {
+                        bar.setTitle(title);
+                    }
+                } else if (metadata.getId() == 6 && !bossbarAntiflicker) { // If anti flicker is enabled, don't update health
+                    BossBar bar = entities.getBossBar(entityID);
+                    // Make health range between 0 and 1
+                    float maxHealth = type == EntityType.ENDER_DRAGON ? 200.0f : 300.0f;
+                    float health = Math.max(0.0f, Math.min(((float) metadata.getValue()) / maxHealth, 1.0f));
+                    if (bar == null) {
+                        String title = type == EntityType.ENDER_DRAGON ? "Ender Dragon" : "Wither";
+                        bar = ViaVersion.getInstance().createBossBar(title, health, BossColor.PINK, BossStyle.SOLID);
+                        entities.setBossBar(entityID, bar);
+                        bar.addPlayer(getPlayer());
+                        bar.show();
+                    } else {
+                        bar.setHealth(health);
+                    }
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public void finish() {
+            if (status == null || standInfo == null || name == null || nameVisible == null) return;
+            // Check invisible | Check small | Check if custom name is empty | Check if custom name visible is true
+            if ((status & 0x20) == 0x20 && (standInfo & 0x01) == 0x01 && name.length() != 0 && nameVisible) {
+                if (!entities.isHologram(entityID)) {
+                    entities.setHologram(entityID, true);
+                    try {
+                        // Send movement
+                        ByteBuf buf = getUser().getChannel().alloc().buffer();
+                        Type.VAR_INT.write(buf, 0x25); // Relative Move Packet
+                        Type.VAR_INT.write(buf, entityID);
+                        buf.writeShort(0);
+                        buf.writeShort((short) (128D * (plugin.getHologramYOffset() * 32D)));
+                        buf.writeShort(0);
+                        buf.writeBoolean(true);
+                        getUser().sendRawPacket(buf, false);
+                    } catch (Exception ignored) {
+                    }
+                }
+            }
+        }
+
+        private Player getPlayer() {
+            return Bukkit.getPlayer(getUser().get(ProtocolInfo.class).getUuid());
+        }
+    }
 }
@@ -0,0 +1,134 @@
+package us.myles.ViaVersion.protocols.protocol1_9to1_8.types;
+
+import com.google.common.base.Preconditions;
+import io.netty.buffer.ByteBuf;
+import us.myles.ViaVersion.ViaVersionPlugin;
+import us.myles.ViaVersion.api.ViaVersion;
+import us.myles.ViaVersion.api.minecraft.chunks.ChunkSection;
+import us.myles.ViaVersion.api.type.PartialType;
+import us.myles.ViaVersion.api.type.Type;
+import us.myles.ViaVersion.protocols.protocol1_9to1_8.chunks.ChunkCache;
+import us.myles.ViaVersion.protocols.protocol1_9to1_8.chunks.RawChunk;
+import us.myles.ViaVersion.protocols.protocol1_9to1_8.storage.ClientChunks;
+
+/**
+ * Reads a 1.8 chunk without parsing its sections and writes it straight into the 1.9 format.
+ * Use {@link ChunkType} when the blocks have to be inspected.
+ */
+public class RawChunkType extends PartialType<RawChunk, ClientChunks> {
+    /**
+     * Amount of sections in a chunk.
+     */
+    private static final int SECTION_COUNT = 16;
+    /**
+     * Highest size which fits the VarInt we reserve for the data size.
+     */
+    private static final int MAX_SIZE = (1 << 21) - 1;
+    /**
+     * Section the blocks are transcoded through, chunks of a connection can be written on different threads.
+     */
+    private static final ThreadLocal<ChunkSection> TRANSCODE_SECTION = new ThreadLocal<ChunkSection>() {
+        @Override
+        protected ChunkSection initialValue() {
+            return new ChunkSection();
+        }
+    };
+
+    public RawChunkType(ClientChunks chunks) {
+        super(chunks, RawChunk.class);
+    }
+
+    private static long toLong(int msw, int lsw) {
+        return ((long) msw << 32) + lsw - -2147483648L;
+    }
+
+    @Override
+    public RawChunk read(ByteBuf input, ClientChunks param) throws Exception {
+        int chunkX = input.readInt();
+        int chunkZ = input.readInt();
+        long chunkHash = toLong(chunkX, chunkZ);
+        boolean groundUp = input.readByte() != 0;
+        int bitmask = input.readUnsignedShort();
+        int dataLength = Type.PRIMITIVE_VAR_INT.readPrimitive(input);
+        int sectionCount = Integer.bitCount(bitmask);
+
+        // If the chunk is from a chunk bulk, it is never an unload packet
+        // Other wise, if it has no data, it is :)
+        boolean isBulkPacket = param.getBulkChunks().remove(chunkHash);
+        if (sectionCount == 0 && groundUp && !isBulkPacket && param.getLoadedChunks().contains(chunkHash)) {
+            // This is a chunk unload packet
+            param.getLoadedChunks().remove(chunkHash);
+            return new RawChunk(chunkX, chunkZ);
+        }
+
+        param.getLoadedChunks().add(chunkHash); // mark chunk as loaded
+
+        RawChunk chunk = RawChunk.of(chunkX, chunkZ, groundUp, bitmask, input.slice(input.readerIndex(), dataLength));
+        input.skipBytes(chunk.getData().readableBytes());
+        return chunk;
+    }
+
+    @Override
+    public void write(ByteBuf output, ClientChunks param, RawChunk chunk) throws Exception {
+        if (chunk.isUnloadPacket()) {
+            output.clear();
+            Type.PRIMITIVE_VAR_INT.writePrimitive(output, 0x1D); // Unload packet ID
+        }
+
+        // Write primary info
+        output.writeInt(chunk.getX());
+        output.writeInt(chunk.getZ());
+        if (chunk.isUnloadPacket()) return;
+        output.writeByte(chunk.isGroundUp() ? 0x01 : 0x00);
+        Type.PRIMITIVE_VAR_INT.writePrimitive(output, chunk.getPrimaryBitmask());
+
+        // Another player might have been sent the same chunk already
+        ChunkCache cache = ((ViaVersionPlugin) ViaVersion.getInstance()).getChunkCache();
+        ChunkCache.Key key = null;
+        if (cache != null) {
+            key = cache.key(chunk);
+            ByteBuf cached = cache.get(key, chunk);
+            if (cached != null) {
+                output.writeBytes(cached, cached.readerIndex(), cached.readableBytes());
+                return;
+            }
+        }
+
+        // The size is only known once the sections are written, reserve 3 bytes for it
+        int sizeIndex = output.writerIndex();
+        output.writeMedium(0);
+
+        ByteBuf data = chunk.getData();
+        ChunkSection section = TRANSCODE_SECTION.get();
+        int index = 0;
+        for (int i = 0; i < SECTION_COUNT; i++) {
+            if ((chunk.getPrimaryBitmask() & (1 << i)) == 0) continue; // Section not set
+            section.clearPalette();
+            chunk.readBlocks(index, section);
+            section.writeBlocks(output);
+            output.writeBytes(data, chunk.blockLightIndex(index), ChunkSection.LIGHT_LENGTH);
+            if (chunk.isSkyLight()) {
+                output.writeBytes(data, chunk.skyLightIndex(index), ChunkSection.LIGHT_LENGTH);
+            }
+            index++;
+        }
+
+        // Write biome data
+        if (chunk.hasBiomeData()) {
+            output.writeBytes(data, chunk.biomeIndex(), RawChunk.BIOME_DATA_LENGTH);
+        }
+
+        writeSize(output, sizeIndex, output.writerIndex() - sizeIndex - 3);
+        if (cache != null) {
+            cache.put(key, chunk, output, sizeIndex, output.writerIndex() - sizeIndex);
+        }
+    }
+
+    private static void writeSize(ByteBuf output, int index, int size) {
+        Preconditions.checkArgument(size <= MAX_SIZE, "Chunk data too big: %s", size);
+        // A VarInt padded to 3 bytes, the client doesn't mind the extra continuation bits
+        output.setByte(index, (size & 0x7F) | 0x80);
+        output.setByte(index + 1, ((size >>> 7) & 0x7F) | 0x80);
+        output.setByte(index + 2, size >>> 14);
+    }
+}
@@ -0,0 +1,35 @@
+package us.myles.ViaVersion.protocols.protocol1_9to1_8.types;
+
+import com.google.common.base.Preconditions;
+import io.netty.buffer.ByteBuf;
+import us.myles.ViaVersion.api.type.Type;
+import us.myles.ViaVersion.protocols.protocol1_9to1_8.sounds.SoundEffect;
+
+/**
+ * Reads a 1.8 sound name as the sound it belongs to and writes its 1.9 name, without creating strings.
+ * Names of unknown sounds aren't read (null is returned), so they can be read as a string instead.
+ */
+public class SoundEffectType extends Type<SoundEffect> {
+    public SoundEffectType() {
+        super("Sound Effect", SoundEffect.class);
+    }
+
+    @Override
+    public SoundEffect read(ByteBuf buffer) throws Exception {
+        int start = buffer.readerIndex();
+        int length = Type.PRIMITIVE_VAR_INT.readPrimitive(buffer);
+        Preconditions.checkArgument(length <= Short.MAX_VALUE, "Cannot receive string longer than Short.MAX_VALUE (got %s characters)", length);
+        SoundEffect effect = length <= buffer.readableBytes() ? SoundEffect.getByName(buffer, buffer.readerIndex(), length) : null;
+        if (effect == null) {
+            buffer.readerIndex(start);
+            return null;
+        }
+        buffer.skipBytes(length);
+        return effect;
+    }
+
+    @Override
+    public void write(ByteBuf buffer, SoundEffect object) throws Exception {
+        object.writeNewName(buffer);
+    }
+}
@@ -0,0 +1,22 @@
+package us.myles.ViaVersion.util;
+
+public class HashUtil {
+
+    private HashUtil() {
+    }
+
+    /**
+     * Mix the bits of a 64 bit hash (the finalizer of MurmurHash3), so every input bit affects every output bit
+     *
+     * @param hash The hash to mix
+     * @return The mixed hash
+     */
+    public static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
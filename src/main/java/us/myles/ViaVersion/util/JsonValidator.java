@@ -0,0 +1,169 @@
+package us.myles.ViaVersion.util;
+
+/**
+ * Checks if a string is a JSON object without parsing it into a tree.
+ * Only strict JSON is accepted, anything else (like the lenient syntax Gson accepts) should be checked by a parser.
+ */
+public class JsonValidator {
+    /**
+     * Deepest nesting of objects and arrays, deeper JSON isn't accepted
+     */
+    private static final int MAX_DEPTH = 64;
+
+    private JsonValidator() {
+    }
+
+    /**
+     * Check if a string is a strict JSON object
+     *
+     * @param json The string
+     * @return True if it's a JSON object, false if it's invalid or uses lenient syntax
+     */
+    public static boolean isObject(String json) {
+        int index = skipWhitespace(json, 0);
+        if (index == json.length() || json.charAt(index) != '{') return false;
+        index = readValue(json, index, 0);
+        return index != -1 && skipWhitespace(json, index) == json.length();
+    }
+
+    /**
+     * Read a value, these return the index after the value or -1 if it's invalid
+     */
+    private static int readValue(String json, int index, int depth) {
+        if (index == json.length()) return -1;
+        switch (json.charAt(index)) {
+            case '{':
+                return readObject(json, index, depth + 1);
+            case '[':
+                return readArray(json, index, depth + 1);
+            case '"':
+                return readString(json, index);
+            case 't':
+                return readLiteral(json, index, "true");
+            case 'f':
+                return readLiteral(json, index, "false");
+            case 'n':
+                return readLiteral(json, index, "null");
+            default:
+                return readNumber(json, index);
+        }
+    }
+
+    private static int readObject(String json, int index, int depth) {
+        if (depth > MAX_DEPTH) return -1;
+        index = skipWhitespace(json, index + 1);
+        if (index < json.length() && json.charAt(index) == '}') return index + 1;
+        while (true) {
+            if (index == json.length() || json.charAt(index) != '"') return -1;
+            index = skipWhitespace(json, readString(json, index));
+            if (index < 0 || index == json.length() || json.charAt(index) != ':') return -1;
+            index = readValue(json, skipWhitespace(json, index + 1), depth);
+            if (index == -1) return -1;
+            index = skipWhitespace(json, index);
+            if (index == json.length()) return -1;
+            char c = json.charAt(index);
+            if (c == '}') return index + 1;
+            if (c != ',') return -1;
+            index = skipWhitespace(json, index + 1);
+        }
+    }
+
+    private static int readArray(String json, int index, int depth) {
+        if (depth > MAX_DEPTH) return -1;
+        index = skipWhitespace(json, index + 1);
+        if (index < json.length() && json.charAt(index) == ']') return index + 1;
+        while (true) {
+            index = readValue(json, index, depth);
+            if (index == -1) return -1;
+            index = skipWhitespace(json, index);
+            if (index == json.length()) return -1;
+            char c = json.charAt(index);
+            if (c == ']') return index + 1;
+            if (c != ',') return -1;
+            index = skipWhitespace(json, index + 1);
+        }
+    }
+
+    private static int readString(String json, int index) {
+        for (index++; index < json.length(); index++) {
+            char c = json.charAt(index);
+            if (c == '"') return index + 1;
+            if (c < 0x20) return -1;
+            if (c == '\\') {
+                if (++index == json.length()) return -1;
+                switch (json.charAt(index)) {
+                    case '"':
+                    case '\\':
+                    case '/':
+                    case 'b':
+                    case 'f':
+                    case 'n':
+                    case 'r':
+                    case 't':
+                        break;
+                    case 'u':
+                        if (index + 4 >= json.length()) return -1;
+                        for (int i = 1; i <= 4; i++) {
+                            if (!isHexDigit(json.charAt(index + i))) return -1;
+                        }
+                        index += 4;
+                        break;
+                    default:
+                        return -1;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isHexDigit(char c) {
+        // Character#digit also accepts non ASCII digits, which Gson doesn't
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+    }
+
+    private static int readLiteral(String json, int index, String literal) {
+        return json.startsWith(literal, index) ? index + literal.length() : -1;
+    }
+
+    private static int readNumber(String json, int index) {
+        if (index < json.length() && json.charAt(index) == '-') index++;
+        if (index == json.length()) return -1;
+        if (json.charAt(index) == '0') {
+            index++;
+        } else {
+            int start = index;
+            index = skipDigits(json, index);
+            if (index == start) return -1;
+        }
+        if (index < json.length() && json.charAt(index) == '.') {
+            int start = ++index;
+            index = skipDigits(json, index);
+            if (index == start) return -1;
+        }
+        if (index < json.length() && (json.charAt(index) == 'e' || json.charAt(index) == 'E')) {
+            index++;
+            if (index < json.length() && (json.charAt(index) == '+' || json.charAt(index) == '-')) index++;
+            int start = index;
+            index = skipDigits(json, index);
+            if (index == start) return -1;
+        }
+        return index;
+    }
+
+    private static int skipDigits(String json, int index) {
+        while (index < json.length() && json.charAt(index) >= '0' && json.charAt(index) <= '9') {
+            index++;
+        }
+        return index;
+    }
+
+    private static int skipWhitespace(String json, int index) {
+        if (index < 0) return index;
+        while (index < json.length()) {
+            char c = json.charAt(index);
+            if (c != ' ' && c != '\t' && c != '\n' && c != '\r') break;
+            index++;
+        }
+        return index;
+    }
+}
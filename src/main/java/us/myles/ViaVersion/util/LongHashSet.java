@@ -0,0 +1,129 @@
+package us.myles.ViaVersion.util;
+
+import java.util.Arrays;
+
+/**
+ * A set of primitive longs using open addressing, so adding and checking values never allocates.
+ * Thread safe, all methods are synchronized.
+ */
+public class LongHashSet {
+    private static final int INITIAL_CAPACITY = 64;
+    /**
+     * Marks an empty slot, the value itself is stored in {@link #containsEmpty}.
+     */
+    private static final long EMPTY = 0L;
+
+    private long[] values = new long[INITIAL_CAPACITY];
+    private int size;
+    private boolean containsEmpty;
+
+    /**
+     * Add a value
+     *
+     * @param value The value
+     * @return True if the value wasn't in the set yet
+     */
+    public synchronized boolean add(long value) {
+        if (value == EMPTY) {
+            if (containsEmpty) return false;
+            containsEmpty = true;
+            return true;
+        }
+        int mask = values.length - 1;
+        int slot = slot(value, mask);
+        while (values[slot] != EMPTY) {
+            if (values[slot] == value) return false;
+            slot = (slot + 1) & mask;
+        }
+        values[slot] = value;
+        // Keep at most half the slots in use
+        if (++size * 2 > values.length) {
+            resize(values.length * 2);
+        }
+        return true;
+    }
+
+    /**
+     * Check if a value is in the set
+     *
+     * @param value The value
+     * @return True if the value is in the set
+     */
+    public synchronized boolean contains(long value) {
+        if (value == EMPTY) return containsEmpty;
+        int mask = values.length - 1;
+        int slot = slot(value, mask);
+        while (values[slot] != EMPTY) {
+            if (values[slot] == value) return true;
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Remove a value
+     *
+     * @param value The value
+     * @return True if the value was in the set
+     */
+    public synchronized boolean remove(long value) {
+        if (value == EMPTY) {
+            boolean contained = containsEmpty;
+            containsEmpty = false;
+            return contained;
+        }
+        int mask = values.length - 1;
+        int slot = slot(value, mask);
+        while (values[slot] != value) {
+            if (values[slot] == EMPTY) return false;
+            slot = (slot + 1) & mask;
+        }
+        // Shift the following values back, so lookups don't stop at the removed slot
+        int next = (slot + 1) & mask;
+        while (values[next] != EMPTY) {
+            int wanted = slot(values[next], mask);
+            // Only move values whose wanted slot isn't between the gap and their current slot
+            if (((next - wanted) & mask) >= ((next - slot) & mask)) {
+                values[slot] = values[next];
+                slot = next;
+            }
+            next = (next + 1) & mask;
+        }
+        values[slot] = EMPTY;
+        size--;
+        return true;
+    }
+
+    public synchronized int size() {
+        return size + (containsEmpty ? 1 : 0);
+    }
+
+    public synchronized void clear() {
+        if (values.length > INITIAL_CAPACITY) {
+            values = new long[INITIAL_CAPACITY];
+        } else {
+            Arrays.fill(values, EMPTY);
+        }
+        size = 0;
+        containsEmpty = false;
+    }
+
+    private void resize(int capacity) {
+        long[] old = values;
+        values = new long[capacity];
+        int mask = capacity - 1;
+        for (long value : old) {
+            if (value == EMPTY) continue;
+            int slot = slot(value, mask);
+            while (values[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            values[slot] = value;
+        }
+    }
+
+    private static int slot(long value, int mask) {
+        long hash = value * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
@@ -5,7 +5,10 @@ import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPipeline;
 import io.netty.handler.codec.ByteToMessageDecoder;
 import io.netty.handler.codec.MessageToByteEncoder;
+import us.myles.ViaVersion.api.type.Type;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
@@ -32,6 +35,8 @@ public class PipelineUtil {
         }
     }
 
+    private static final MethodHandle DECODE_HANDLE = unreflect(DECODE_METHOD);
+
     public static List<Object> callDecode(ByteToMessageDecoder decoder, ChannelHandlerContext ctx, Object input) throws InvocationTargetException {
         List<Object> output = new ArrayList<>();
         try {
@@ -42,6 +47,37 @@ public class PipelineUtil {
         return output;
     }
 
+    /**
+     * Call the decode method of a decoder, adding the output straight into the given list.
+     * This uses a cached MethodHandle rather than Method.invoke.
+     *
+     * @param decoder The decoder to call
+     * @param ctx     The current context
+     * @param input   The buffer to decode
+     * @param output  The list to add the decoded objects to
+     * @throws Exception The exception thrown by the decoder
+     */
+    public static void callDecode(ByteToMessageDecoder decoder, ChannelHandlerContext ctx, ByteBuf input, List<Object> output) throws Exception {
+        try {
+            DECODE_HANDLE.invokeExact(decoder, ctx, input, output);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new InvocationTargetException(t);
+        }
+    }
+
+    private static MethodHandle unreflect(Method method) {
+        if (method == null) return null;
+        try {
+            return MethodHandles.lookup().unreflect(method);
+        } catch (IllegalAccessException e) {
+            e.printStackTrace();
+            System.out.println("Netty issue?");
+            return null;
+        }
+    }
+
     public static void callEncode(MessageToByteEncoder encoder, ChannelHandlerContext ctx, Object msg, ByteBuf output) throws InvocationTargetException {
         try {
             PipelineUtil.ENCODE_METHOD.invoke(encoder, ctx, msg, output);
@@ -50,6 +86,54 @@ public class PipelineUtil {
         }
     }
 
+    /**
+     * Rewrite the VarInt packet ID in front of a packet body, keeping the body where it is.
+     * If the new ID doesn't fit in front of the body a new buffer is made, the old one is left for the caller to release.
+     *
+     * @param packet    The buffer holding the packet
+     * @param bodyIndex The index the packet body starts at (after the old ID)
+     * @param newID     The new packet ID
+     * @return The buffer with the new ID, readable from the ID
+     */
+    public static ByteBuf rewritePacketID(ByteBuf packet, int bodyIndex, int newID) {
+        int length = varIntLength(newID);
+        if (bodyIndex >= length) {
+            // Write over the old ID (and the bytes before it, they have been read already)
+            int index = bodyIndex - length;
+            packet.readerIndex(index);
+            while ((newID & ~0x7F) != 0) {
+                packet.setByte(index++, (newID & 0x7F) | 0x80);
+                newID >>>= 7;
+            }
+            packet.setByte(index, newID);
+            return packet;
+        }
+        ByteBuf output = packet.alloc().ioBuffer(length + packet.writerIndex() - bodyIndex);
+        try {
+            Type.PRIMITIVE_VAR_INT.writePrimitive(output, newID);
+            output.writeBytes(packet, bodyIndex, packet.writerIndex() - bodyIndex);
+        } catch (RuntimeException e) {
+            output.release();
+            throw e;
+        }
+        return output;
+    }
+
+    /**
+     * Get the amount of bytes a value takes up as a VarInt
+     *
+     * @param value The value
+     * @return The amount of bytes
+     */
+    public static int varIntLength(int value) {
+        int length = 1;
+        while ((value & ~0x7F) != 0) {
+            length++;
+            value >>>= 7;
+        }
+        return length;
+    }
+
     public static boolean containsCause(Throwable t, Class<? extends Throwable> c) {
         while (t != null) {
             t = t.getCause();